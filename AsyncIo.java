@@ -0,0 +1,108 @@
+// Importing necessary packages for Swing threading
+import java.awt.EventQueue;
+import java.awt.SecondaryLoop;
+import java.awt.Toolkit;
+import javax.swing.SwingUtilities;
+
+// Importing necessary packages for background work
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+// Runs the file work the screens trigger on a dedicated I/O thread, off the Swing thread.
+// Screens update their own state straight away and pass callbacks that are called back on the
+// Swing thread with the result or the failure once the work is done. A single thread does all of
+// the work, so saves reach the disk in the order the user made them. Code that needs a result
+// before it can go on, like the login dialogs, uses callAndWait: the Swing thread keeps painting
+// and handling events while it waits.
+class AsyncIo {
+
+    // Time taken by each task on the I/O thread, waiting in the queue not included
+    private static final LatencyHistogram TASK_TIME = Metrics.getDefault().timer("ioTask");
+
+    private static volatile Thread ioThread;
+    private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "io-worker");
+        thread.setDaemon(true);  // Do not keep the application alive for queued work
+        ioThread = thread;
+        return thread;
+    });
+
+    // Work done on the I/O thread that has no result
+    interface Action {
+        void run() throws Exception;
+    }
+
+    // Runs a task on the I/O thread; its result or failure is passed to the callbacks on the Swing thread.
+    // Either callback may be null.
+    static <T> CompletableFuture<T> call(Callable<T> task, Consumer<? super T> onSuccess,
+                                         Consumer<? super Exception> onFailure) {
+        CompletableFuture<T> result = submit(task);
+        result.whenComplete((value, failure) -> SwingUtilities.invokeLater(() -> {
+            if (failure == null) {
+                if (onSuccess != null) {
+                    onSuccess.accept(value);
+                }
+            } else {
+                Exception exception = failure instanceof Exception ? (Exception) failure : new ExecutionException(failure);
+                exception.printStackTrace();
+                if (onFailure != null) {
+                    onFailure.accept(exception);
+                }
+            }
+        }));
+        return result;
+    }
+
+    // Runs an action on the I/O thread; completion or failure is passed to the callbacks on the Swing thread
+    static CompletableFuture<Void> run(Action action, Runnable onSuccess, Consumer<? super Exception> onFailure) {
+        return call(() -> {
+            action.run();
+            return null;
+        }, ignored -> {
+            if (onSuccess != null) {
+                onSuccess.run();
+            }
+        }, onFailure);
+    }
+
+    // Runs a task on the I/O thread and returns its result. Called on the Swing thread it keeps
+    // dispatching events until the task is done, so the screen stays responsive.
+    static <T> T callAndWait(Callable<T> task) throws Exception {
+        if (Thread.currentThread() == ioThread) {
+            return task.call();  // Already on the I/O thread; queueing would wait for itself
+        }
+        CompletableFuture<T> result = submit(task);
+        if (EventQueue.isDispatchThread()) {
+            SecondaryLoop loop = Toolkit.getDefaultToolkit().getSystemEventQueue().createSecondaryLoop();
+            result.whenComplete((value, failure) -> loop.exit());
+            if (!result.isDone()) {
+                loop.enter();  // Returns at once if the task finished before the loop started
+            }
+        }
+        try {
+            return result.get();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        }
+    }
+
+    // Queues a task on the I/O thread
+    private static <T> CompletableFuture<T> submit(Callable<T> task) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        EXECUTOR.execute(() -> {
+            long start = System.nanoTime();
+            try {
+                result.complete(task.call());
+            } catch (Exception e) {
+                result.completeExceptionally(e);
+            } finally {
+                TASK_TIME.record(System.nanoTime() - start);
+            }
+        });
+        return result;
+    }
+}
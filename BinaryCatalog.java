@@ -0,0 +1,233 @@
+// Importing necessary packages for file operations
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+
+// Importing necessary packages for list and map data structures
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Optional binary snapshot format for the drink catalog (drinks.bin).
+// The file is a fixed header, one fixed-size record per drink and a string table holding every
+// distinct name and image path once. It is read by mapping the file and pulling numbers straight
+// out of the buffer, so loading does no text parsing, decodes each distinct string only once and
+// copes with any character in a drink name, commas included. When drinks.bin exists it is used
+// instead of drinks.txt; InventoryJournal keeps journaling on top of it the same way.
+//
+// Layout (big-endian):
+//   header   magic int, version int, generation long, drink count int, string count int,
+//            orders applied int (version 2), unused int (version 2)
+//   records  name string index int, image string index int, price double, quantity int, unused int
+//   strings  string count + 1 byte offsets (int) relative to the string data, then the UTF-8 data
+//
+// Usage: java -cp vending-machine.jar BinaryCatalog [drinks.txt] [drinks.bin]
+class BinaryCatalog {
+
+    // Default file name of the binary snapshot
+    static final String CATALOG_FILE = "drinks.bin";
+
+    // "DRNK", identifies the format
+    private static final int MAGIC = 0x44524E4B;
+    private static final int VERSION = 2;
+
+    // Version 1 files lack the order count and have a shorter header
+    private static final int VERSION_1 = 1;
+    private static final int VERSION_1_HEADER_SIZE = 24;
+
+    private static final int HEADER_SIZE = 32;
+    private static final int RECORD_SIZE = 24;
+
+    // Converts a text snapshot and its journal into a binary snapshot
+    public static void main(String[] args) {
+        File source = new File(args.length > 0 ? args[0] : InventoryJournal.SNAPSHOT_FILE);
+        File target = new File(args.length > 1 ? args[1] : CATALOG_FILE);
+        File journalFile = new File(source.getAbsoluteFile().getParentFile(), InventoryJournal.JOURNAL_FILE);
+        if (!source.isFile()) {
+            System.err.println("No catalog at " + source);
+            return;
+        }
+        // Replaying the journal brings the catalog up to date; compacting into the binary file then
+        // writes it out and restarts the journal on the new snapshot's generation.
+        InventoryJournal sourceJournal = new InventoryJournal(source, journalFile);
+        List<Drink> drinks = sourceJournal.load();
+        new InventoryJournal(target, journalFile).compact(drinks, sourceJournal.getOrdersApplied());
+        System.out.println("Wrote " + drinks.size() + " drinks to " + target
+                           + "; it is used instead of " + source.getName() + " from now on");
+    }
+
+    // Tells whether a snapshot file is in the binary format, judging by its name
+    static boolean isBinary(File snapshotFile) {
+        return snapshotFile.getName().endsWith(".bin");
+    }
+
+    // Returns the snapshot file the application uses in a directory: drinks.bin if it was created,
+    // drinks.txt otherwise
+    static File snapshotIn(File directory) {
+        File binary = new File(directory, CATALOG_FILE);
+        return binary.isFile() ? binary : new File(directory, InventoryJournal.SNAPSHOT_FILE);
+    }
+
+    // Reads every drink of a binary snapshot into the list and returns the snapshot's generation
+    static long read(File file, List<Drink> drinks) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < VERSION_1_HEADER_SIZE || size > Integer.MAX_VALUE) {
+                throw new IOException("Not a binary catalog: " + file);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            int headerSize = headerSize(buffer);
+            if (buffer.getInt(0) != MAGIC || headerSize < 0 || size < headerSize) {
+                throw new IOException("Not a binary catalog: " + file);
+            }
+            long generation = buffer.getLong(8);
+            int drinkCount = buffer.getInt(16);
+            int stringCount = buffer.getInt(20);
+
+            int offsetsStart = headerSize + drinkCount * RECORD_SIZE;
+            int dataStart = offsetsStart + (stringCount + 1) * 4;
+            if (drinkCount < 0 || stringCount < 0 || dataStart > size) {
+                throw new IOException("Truncated binary catalog: " + file);
+            }
+
+            // Decode each distinct string once; drinks sharing a name or image share the String
+            String[] strings = new String[stringCount];
+            byte[] scratch = new byte[256];
+            for (int i = 0; i < stringCount; i++) {
+                int start = buffer.getInt(offsetsStart + i * 4);
+                int end = buffer.getInt(offsetsStart + (i + 1) * 4);
+                int length = end - start;
+                if (start < 0 || length < 0 || dataStart + (long) end > size) {
+                    throw new IOException("Corrupt string table in " + file);
+                }
+                if (length > scratch.length) {
+                    scratch = new byte[Math.max(length, scratch.length * 2)];
+                }
+                buffer.position(dataStart + start);
+                buffer.get(scratch, 0, length);
+                strings[i] = new String(scratch, 0, length, StandardCharsets.UTF_8);
+            }
+
+            if (drinks instanceof ArrayList) {
+                ((ArrayList<Drink>) drinks).ensureCapacity(drinks.size() + drinkCount);
+            }
+            for (int i = 0; i < drinkCount; i++) {
+                int record = headerSize + i * RECORD_SIZE;
+                int nameIndex = buffer.getInt(record);
+                int imageIndex = buffer.getInt(record + 4);
+                if (nameIndex < 0 || nameIndex >= stringCount || imageIndex < 0 || imageIndex >= stringCount) {
+                    throw new IOException("Corrupt drink record " + i + " in " + file);
+                }
+                drinks.add(new Drink(strings[nameIndex], buffer.getDouble(record + 8), buffer.getInt(record + 16),
+                                     strings[imageIndex]));
+            }
+            return generation;
+        }
+    }
+
+    // Reads only the generation out of a binary snapshot, or 0 if the file is missing or not binary
+    static long readGeneration(File file) {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(VERSION_1_HEADER_SIZE);  // Same fields in every version
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                // Keep reading until the header is complete or the file ends
+            }
+            if (header.hasRemaining() || header.getInt(0) != MAGIC) {
+                return 0;
+            }
+            return header.getLong(8);
+        } catch (IOException e) {
+            return 0;  // A missing snapshot simply has no generation yet
+        }
+    }
+
+    // Reads the number of order log records reflected in a binary snapshot, or -1 if it does not say
+    static int readOrdersApplied(File file) {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                // Keep reading until the header is complete or the file ends
+            }
+            if (header.hasRemaining() || header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+                return -1;
+            }
+            return header.getInt(24);
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    // Returns the header size of the format version in the buffer, or -1 for an unknown version
+    private static int headerSize(ByteBuffer buffer) {
+        switch (buffer.getInt(4)) {
+            case VERSION:
+                return HEADER_SIZE;
+            case VERSION_1:
+                return VERSION_1_HEADER_SIZE;
+            default:
+                return -1;
+        }
+    }
+
+    // Writes the drinks as a binary snapshot of the given generation reflecting the given number of
+    // order log records (-1 if unknown)
+    static void write(File file, List<Drink> drinks, long generation, int ordersApplied) throws IOException {
+        // Collect the distinct strings and give each one an index in the table
+        Map<String, Integer> stringIndexes = new HashMap<>();
+        List<byte[]> strings = new ArrayList<>();
+        int[] nameIndexes = new int[drinks.size()];
+        int[] imageIndexes = new int[drinks.size()];
+        for (int i = 0; i < drinks.size(); i++) {
+            Drink drink = drinks.get(i);
+            nameIndexes[i] = indexOf(drink.getName(), stringIndexes, strings);
+            imageIndexes[i] = indexOf(drink.getImagePath(), stringIndexes, strings);
+        }
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(generation);
+            out.writeInt(drinks.size());
+            out.writeInt(strings.size());
+            out.writeInt(ordersApplied);
+            out.writeInt(0);
+            for (int i = 0; i < drinks.size(); i++) {
+                Drink drink = drinks.get(i);
+                out.writeInt(nameIndexes[i]);
+                out.writeInt(imageIndexes[i]);
+                out.writeDouble(drink.getPrice());
+                out.writeInt(drink.getQuantity());
+                out.writeInt(0);
+            }
+            int offset = 0;
+            for (byte[] string : strings) {
+                out.writeInt(offset);
+                offset += string.length;
+            }
+            out.writeInt(offset);
+            for (byte[] string : strings) {
+                out.write(string);
+            }
+        }
+    }
+
+    // Returns the table index of a string, adding it to the table the first time it is seen
+    private static int indexOf(String value, Map<String, Integer> stringIndexes, List<byte[]> strings) {
+        String key = value != null ? value : "";
+        Integer index = stringIndexes.get(key);
+        if (index == null) {
+            index = strings.size();
+            stringIndexes.put(key, index);
+            strings.add(key.getBytes(StandardCharsets.UTF_8));
+        }
+        return index;
+    }
+}
@@ -3,20 +3,13 @@ import java.awt.BorderLayout;
 import java.awt.Color;
 import java.awt.EventQueue;
 import java.awt.Font;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
 
-// Importing necessary packages for file operations
-import java.io.BufferedReader;
-import java.io.BufferedWriter;
-import java.io.FileReader;
-import java.io.FileWriter;
-import java.io.IOException;
-
-// Importing necessary packages for list and map data structures
+// Importing necessary packages for list data structures
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.List;
 
-import javax.swing.ImageIcon;
 import javax.swing.JButton;
 import javax.swing.JFrame;
 import javax.swing.JOptionPane;
@@ -24,18 +17,18 @@ import javax.swing.JPanel;
 import javax.swing.JScrollPane;
 import javax.swing.JTable;
 import javax.swing.border.EmptyBorder;
-import javax.swing.table.DefaultTableModel;
 
 // Defining a new class named 'CustomerInterface' that extends JFrame (making it a window)
 public class CustomerInterface extends JFrame {
 
     // Private members for the application logic
-    private ArrayList<Drink> availableDrinks;  // List of drinks available
-    private Map<Drink, Integer> cart;  // Cart to store selected drinks and their quantities
+    private final VendingEngine engine;  // Engine holding the catalog and doing checkouts
+    private List<Drink> availableDrinks;  // List of drinks available
+    private VendingEngine.Cart cart;  // Cart to store selected drinks and their quantities, null once checked out
 
     // GUI components
     private JTable drinksTable;
-    private DefaultTableModel drinksTableModel;
+    private DrinksTableModel drinksTableModel;  // Rows bound to the catalog, repainted cell by cell
     private JButton addToCartButton;
     private JButton checkoutButton;
     private Color backgroundColor = new Color(240, 248, 255);
@@ -43,8 +36,14 @@ public class CustomerInterface extends JFrame {
     private Font tableFont = new Font("Arial", Font.PLAIN, 12);
     private Font buttonFont = new Font("Arial", Font.BOLD, 14);
 
-    // Default constructor for the CustomerInterface class
+    // Default constructor for the CustomerInterface class, serving the machine in the working directory
     public CustomerInterface() {
+        this(VendingEngine.getDefault());
+    }
+
+    // Constructor for the customer interface of the given machine
+    public CustomerInterface(VendingEngine engine) {
+        this.engine = engine;
 
         // Setting up the main window properties
         setTitle("Customer Interface");
@@ -54,11 +53,16 @@ public class CustomerInterface extends JFrame {
         getContentPane().setBackground(backgroundColor);
 
         // Initializing the drinks table
-        String[] columnNames = {"Drink Name", "Price", "Quantity"};
-        drinksTableModel = new DefaultTableModel(columnNames, 0);
+        // The model follows the shared catalog while the window is open, including edits made outside it
+        drinksTableModel = new DrinksTableModel(engine.getCatalog(),
+                new int[] {DrinksTableModel.DRINK, DrinksTableModel.PRICE, DrinksTableModel.AVAILABLE});
         drinksTable = new JTable(drinksTableModel);
         // Setting a custom cell renderer for the first column (potentially to display images alongside text)
         drinksTable.getColumnModel().getColumn(0).setCellRenderer(new ImageTextCellRenderer());
+        // Setting preferred widths for columns, once for the whole table
+        drinksTable.getColumnModel().getColumn(0).setPreferredWidth(200);
+        drinksTable.getColumnModel().getColumn(1).setPreferredWidth(100);
+        drinksTable.getColumnModel().getColumn(2).setPreferredWidth(100);
         JScrollPane scrollPane = new JScrollPane(drinksTable);  // Scroll pane to allow scrolling of the table
 
         // Initializing the 'Add to Cart' button and its action
@@ -88,72 +92,68 @@ public class CustomerInterface extends JFrame {
         checkoutButton.setFont(buttonFont);
         checkoutButton.setBackground(buttonColor);
 
-        // Loading drinks from a file and populating the table
+        // Loading drinks from the catalog; the table model already shows them
         availableDrinks = loadAvailableDrinks();
-        populateDrinksTable();
 
-        // Initializing the cart as a HashMap
-        cart = new HashMap<>();
+        // Starting an empty cart in the engine
+        cart = engine.newCart();
+
+        // Stopping the table from following the catalog once the window is closed,
+        // and giving back the stock of a cart that was abandoned
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                drinksTableModel.dispose();
+                if (cart != null) {
+                    engine.cancel(cart);
+                }
+            }
+        });
 
         // Setting a border for the content pane
         ((JPanel) getContentPane()).setBorder(new EmptyBorder(10, 10, 10, 10));
 
-        // Determining the row height for the table based on the tallest image
-        int maxImageHeight = 0;
+        // Determining the row height for the table based on the tallest image, read from the image headers only
+        ArrayList<String> imagePaths = new ArrayList<>();
         for (Drink drink : availableDrinks) {
-            ImageIcon icon = new ImageIcon(drink.getImagePath());
-            if (icon.getIconHeight() > maxImageHeight) {
-                maxImageHeight = icon.getIconHeight();
-            }
+            imagePaths.add(drink.getImagePath());
         }
-        drinksTable.setRowHeight(maxImageHeight);
-    }
-
-    // Method to load drinks from a file and return them as a list
-    private ArrayList<Drink> loadAvailableDrinks() {
-        ArrayList<Drink> drinks = new ArrayList<>();
-        // Reading from a file
-        try (BufferedReader reader = new BufferedReader(new FileReader("drinks.txt"))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split(",");
-                if (parts.length == 4) {  // Checking if the data format is correct
-                    String name = parts[0];
-                    double price = Double.parseDouble(parts[1]);
-                    int quantity = Integer.parseInt(parts[2]);
-                    String image = parts[3];
-                    drinks.add(new Drink(name, price, quantity, image));  // Creating a new Drink object and adding it to the list
-                }
+        // The headers are read on the I/O thread and the rows are resized once they are known
+        AsyncIo.call(() -> ImageProbe.getMaxHeight(imagePaths), maxImageHeight -> {
+            if (maxImageHeight > 0) {  // Keeping the default row height when no image could be read
+                drinksTable.setRowHeight(maxImageHeight);
             }
-        } catch (IOException e) {
-            e.printStackTrace();  // Handling exceptions
-        }
-        return drinks;  // Returning the list of drinks
+        }, null);
     }
 
-    // Method to populate the table with drinks from the list
-    private void populateDrinksTable() {
-        drinksTableModel.setRowCount(0);  // Clearing the table
-        for (Drink drink : availableDrinks) {
-            Object[] row = {drink, drink.getPrice(), drink.getQuantity()};
-            drinksTableModel.addRow(row);  // Adding a row for each drink
-            // Setting preferred widths for columns
-            drinksTable.getColumnModel().getColumn(0).setPreferredWidth(200);
-            drinksTable.getColumnModel().getColumn(1).setPreferredWidth(100);
-            drinksTable.getColumnModel().getColumn(2).setPreferredWidth(100);
-        }
+    // Method to get the drinks from the engine's catalog
+    private List<Drink> loadAvailableDrinks() {
+        return engine.getDrinks();
     }
 
     // Method to add selected drinks to the cart
     private void addToCart() {
         int selectedRow = drinksTable.getSelectedRow();  // Getting the selected row index
         if (selectedRow != -1) {  // If a row is selected
-            Drink selectedDrink = availableDrinks.get(selectedRow);
-            int quantityRequested = Integer.parseInt(JOptionPane.showInputDialog(this, "Enter Quantity:"));  // Asking the user for the quantity
-            if (selectedDrink.getQuantity() < quantityRequested) {  // Checking stock
-                JOptionPane.showMessageDialog(this, selectedDrink.getName() + " is out of stock.");
+            Drink selectedDrink = drinksTableModel.getDrink(selectedRow);
+            String input = JOptionPane.showInputDialog(this, "Enter Quantity:");  // Asking the user for the quantity
+            if (input == null) {
+                return;  // The user cancelled
+            }
+            int quantityRequested;
+            try {
+                quantityRequested = Integer.parseInt(input.trim());
+            } catch (NumberFormatException e) {
+                quantityRequested = 0;
+            }
+            if (quantityRequested <= 0) {
+                JOptionPane.showMessageDialog(this, "Please enter a whole number greater than zero.");
+                return;
+            }
+            Drink shortDrink = engine.addToCart(cart, selectedDrink, quantityRequested);  // Holding the stock while the customer shops
+            if (shortDrink != null) {
+                JOptionPane.showMessageDialog(this, shortDrink.getName() + " is out of stock.");
             } else {
-                cart.put(selectedDrink, quantityRequested);  // Adding the drink to the cart
                 JOptionPane.showMessageDialog(this, quantityRequested + " x " + selectedDrink.getName() + " added to cart.");
             }
         } else {
@@ -161,20 +161,6 @@ public class CustomerInterface extends JFrame {
         }
     }
 
-    // Method to save the updated drinks list to the file
-    private void saveDrinks() {
-        // Writing to a file
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter("drinks.txt"))) {
-            for (Drink drink : availableDrinks) {
-                String line = drink.getName() + "," + drink.getPrice() + "," + drink.getQuantity() + "," + drink.getImagePath();
-                writer.write(line);
-                writer.newLine();
-            }
-        } catch (IOException e) {
-            e.printStackTrace();  // Handling exceptions
-        }
-    }
-
     // Method for the checkout process
     private void checkout() {
         if (cart.isEmpty()) {  // If the cart is empty
@@ -182,49 +168,34 @@ public class CustomerInterface extends JFrame {
             return;
         }
 
-        // Building the order summary
-        StringBuilder orderSummary = new StringBuilder("Order Summary:\n");
-        double total = 0;
-        for (Map.Entry<Drink, Integer> entry : cart.entrySet()) {
-            double cost = entry.getKey().getPrice() * entry.getValue();
-            total += cost;
-            orderSummary.append(entry.getKey().getName()).append(" x ").append(entry.getValue())
-                        .append(" = ").append(cost).append("\n");
+        // Holding the stock of every cart line again, in case the cart was left alone long enough to expire
+        Drink shortDrink = engine.reserve(cart);
+        if (shortDrink != null) {
+            JOptionPane.showMessageDialog(this, shortDrink.getName() + " is out of stock.");
+            return;
         }
-        orderSummary.append("\nTotal: ").append(total);
 
         // Asking the user for confirmation
-        int choice = JOptionPane.showConfirmDialog(this, orderSummary.toString(), "Confirm Order", JOptionPane.YES_NO_OPTION);
-        if (choice == JOptionPane.YES_OPTION) {
-            // Deducting the quantities of the drinks in the cart
-            for (Map.Entry<Drink, Integer> entry : cart.entrySet()) {
-                Drink drink = entry.getKey();
-                int quantityBought = entry.getValue();
-                drink.setQuantity(drink.getQuantity() - quantityBought);
-            }
-            saveDrinks();  // Saving the updated list to the file
-            saveOrder(orderSummary.toString());  // Saving the order
-            cart.clear();  // Clearing the cart
-            JOptionPane.showMessageDialog(this, "Order placed successfully!");
-
-            // Refreshing the table and returning to the main interface
-            populateDrinksTable();
-            this.dispose();  // Closing the customer interface
-            VendingMachine vendingMachine = new VendingMachine();  // Opening the main interface
-            vendingMachine.setVisible(true);
+        int choice = JOptionPane.showConfirmDialog(this, cart.getSummary(), "Confirm Order", JOptionPane.YES_NO_OPTION);
+        if (choice != JOptionPane.YES_OPTION) {
+            return;  // Back to shopping; the stock stays held until the cart expires or the window is closed
         }
-    }
 
-    // Method to save the order to a file
-    private void saveOrder(String orderSummary) {
-        // Appending the order to a file
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter("orders.txt", true))) {
-            writer.write(orderSummary);
-            writer.newLine();
-            writer.newLine();
-        } catch (IOException e) {
-            e.printStackTrace();  // Handling exceptions
-        }
+        // Deducting the stock and saving the order on the I/O thread; the stock stays reserved until then,
+        // so the customer can go straight back to the main interface and is told when the order is saved
+        VendingEngine.Cart order = cart;
+        cart = null;  // Handed to the I/O thread; closing the window must not release it
+        AsyncIo.call(() -> engine.commit(order),
+                orderSummary -> JOptionPane.showMessageDialog(null, "Order placed successfully!"),
+                e -> {
+                    engine.cancel(order);  // The order was not saved, so its stock goes back on sale
+                    JOptionPane.showMessageDialog(null, "The order could not be saved.");
+                });
+
+        // Returning to the main interface; the sold quantities reach the table through the catalog
+        this.dispose();  // Closing the customer interface
+        VendingMachine vendingMachine = new VendingMachine(engine);  // Opening the main interface
+        vendingMachine.setVisible(true);
     }
 
 }
@@ -0,0 +1,329 @@
+// Importing necessary packages for file operations and change notifications
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+
+// Importing necessary packages for list and map data structures
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// The in-memory drink catalog shared by every screen of the process.
+// It is loaded once from the inventory journal, written back through it, and kept in sync with
+// edits made by other programs: a WatchService reports changes to drinks.txt and drinks.journal,
+// new journal lines are replayed from where the catalog left off, and a rewritten snapshot is
+// compared line by line so that only the drinks that actually changed are touched.
+class DrinkCatalog {
+
+    // Receives notifications about catalog changes, on the thread that made them
+    interface Listener {
+        // Drinks in the given index range (inclusive) changed
+        void drinksChanged(int firstIndex, int lastIndex);
+
+        // Drinks were inserted at the given index range (inclusive)
+        void drinksInserted(int firstIndex, int lastIndex);
+
+        // Drinks were removed from the given index range (inclusive)
+        void drinksRemoved(int firstIndex, int lastIndex);
+    }
+
+    private final InventoryJournal journal;
+    private final File snapshotFile;
+    private final File journalFile;
+
+    // Drinks in journal order; reads never lock, structural changes copy the list
+    private final CopyOnWriteArrayList<Drink> drinks;
+    // Index of each drink in the list, so a cart line finds its row without a scan. Drinks are only
+    // appended and removed at the end, so keeping it up to date costs as much as the change itself.
+    private final IdentityHashMap<Drink, Integer> positions = new IdentityHashMap<>();
+    private final CopyOnWriteArrayList<Listener> listeners = new CopyOnWriteArrayList<>();
+    private long journalPosition;  // Journal bytes already reflected in the catalog
+    private WatchService watchService;
+
+    // Loads the catalog from the given snapshot and journal files, optionally watching them for outside edits
+    DrinkCatalog(File snapshotFile, File journalFile, boolean watch) {
+        this.snapshotFile = snapshotFile;
+        this.journalFile = journalFile;
+        this.journal = new InventoryJournal(snapshotFile, journalFile);
+        List<Drink> loaded = new ArrayList<>();
+        journalPosition = journal.load(loaded);
+        drinks = new CopyOnWriteArrayList<>(loaded);
+        addPositions(0, drinks.size());
+        if (journal.needsCompaction()) {
+            compact();
+        }
+        if (watch) {
+            startWatching();
+        }
+    }
+
+    // Returns a read-only view of the drinks
+    List<Drink> getDrinks() {
+        return Collections.unmodifiableList(drinks);
+    }
+
+    void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    // Persists the stock sold by the order with the given order log record number; the drinks
+    // themselves were already updated
+    synchronized void recordSale(Map<Drink, Integer> sold, int orderNumber) {
+        catchUp();
+        journalPosition = journal.recordSale(positions, sold, orderNumber);
+        for (Drink drink : sold.keySet()) {
+            Integer index = positions.get(drink);
+            if (index != null) {
+                fireChanged(index, index);
+            }
+        }
+        compactIfNeeded();
+    }
+
+    // Returns the number of order log records the stock reflects, -1 if the files predate order numbers
+    synchronized int getOrdersApplied() {
+        catchUp();
+        return journal.getOrdersApplied();
+    }
+
+    // Returns the numbers of the order log records below orderCount whose stock was never deducted
+    synchronized List<Integer> getMissingOrders(int orderCount) {
+        catchUp();
+        return journal.getMissingOrders(orderCount);
+    }
+
+    // Persists that the stock reflects every order log record below orderCount
+    synchronized void recordOrdersApplied(int orderCount) {
+        catchUp();
+        journalPosition = journal.recordOrdersApplied(orderCount);
+    }
+
+    // Tells the listeners that carts took or gave back stock of the given drinks; nothing is persisted,
+    // as reservations only live in memory
+    synchronized void reservationsChanged(Collection<Drink> changed) {
+        for (Drink drink : changed) {
+            Integer index = positions.get(drink);
+            if (index != null) {
+                fireChanged(index, index);
+            }
+        }
+    }
+
+    // Adds a new drink to the end of the catalog
+    synchronized void addDrink(Drink drink) {
+        catchUp();
+        drinks.add(drink);
+        addPositions(drinks.size() - 1, drinks.size());
+        journalPosition = journal.recordAdd(drink);
+        fireInserted(drinks.size() - 1, drinks.size() - 1);
+        compactIfNeeded();
+    }
+
+    // Renames the drink at the given position
+    synchronized void renameDrink(int index, String name) {
+        catchUp();
+        drinks.get(index).setName(name);
+        journalPosition = journal.recordName(index, name);
+        fireChanged(index, index);
+        compactIfNeeded();
+    }
+
+    // Changes the price of the drink at the given position
+    synchronized void changePrice(int index, double price) {
+        catchUp();
+        drinks.get(index).setPrice(price);
+        journalPosition = journal.recordPrice(index, price);
+        fireChanged(index, index);
+        compactIfNeeded();
+    }
+
+    // Sets the stock on hand of the drink at the given position
+    synchronized void changeQuantity(int index, int quantity) {
+        catchUp();
+        drinks.get(index).setQuantity(quantity);
+        journalPosition = journal.recordQuantity(index, quantity);
+        fireChanged(index, index);
+        compactIfNeeded();
+    }
+
+    // Changes the image of the drink at the given position
+    synchronized void changeImage(int index, String imagePath) {
+        catchUp();
+        drinks.get(index).setImagePath(imagePath);
+        journalPosition = journal.recordImage(index, imagePath);
+        fireChanged(index, index);
+        compactIfNeeded();
+    }
+
+    // Stops watching the files for outside edits
+    synchronized void close() {
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            watchService = null;
+        }
+    }
+
+    // Applies journal lines another process appended since the catalog last read or wrote the journal
+    private void catchUp() {
+        long length = journal.length();
+        if (length == journalPosition) {
+            return;
+        }
+        if (length < journalPosition) {
+            reloadSnapshot();  // The journal was reset, so another process compacted it into a new snapshot
+            return;
+        }
+        int size = drinks.size();
+        List<Drink> updated = new ArrayList<>(drinks);
+        List<String> before = toLines(updated);
+        journalPosition = journal.replayFrom(updated, journalPosition);
+        applyDifferences(before, updated, size);
+    }
+
+    // Re-reads the snapshot and journal and applies only the drinks that differ from the catalog
+    private void reloadSnapshot() {
+        List<Drink> reloaded = new ArrayList<>();
+        journalPosition = journal.load(reloaded);
+        applyDifferences(toLines(drinks), reloaded, drinks.size());
+    }
+
+    // Brings the catalog in line with a freshly read list, touching only the rows that changed
+    private void applyDifferences(List<String> currentLines, List<Drink> fresh, int currentSize) {
+        int common = Math.min(currentSize, fresh.size());
+        for (int i = 0; i < common; i++) {
+            Drink source = fresh.get(i);
+            if (!InventoryJournal.toLine(source).equals(currentLines.get(i))) {
+                Drink target = drinks.get(i);
+                target.setName(source.getName());
+                target.setPrice(source.getPrice());
+                target.setQuantity(source.getQuantity());
+                if (!source.getImagePath().equals(target.getImagePath())) {
+                    target.setImagePath(source.getImagePath());
+                }
+                fireChanged(i, i);
+            }
+        }
+        if (fresh.size() > currentSize) {
+            // Drinks appended by replaying the journal are the fresh objects themselves
+            drinks.addAll(fresh.subList(currentSize, fresh.size()));
+            addPositions(currentSize, fresh.size());
+            fireInserted(currentSize, fresh.size() - 1);
+        } else if (fresh.size() < currentSize) {
+            for (Drink removed : drinks.subList(fresh.size(), currentSize)) {
+                positions.remove(removed);
+            }
+            drinks.subList(fresh.size(), currentSize).clear();
+            fireRemoved(fresh.size(), currentSize - 1);
+        }
+    }
+
+    // Folds the journal into a new snapshot once it has grown past the threshold
+    private void compactIfNeeded() {
+        if (journal.needsCompaction()) {
+            compact();
+        }
+    }
+
+    // Writes the catalog as a new snapshot and remembers where the fresh journal starts
+    private void compact() {
+        journal.compact(drinks);
+        journalPosition = journal.length();
+    }
+
+    // Remembers the index of the drinks from fromIndex (inclusive) to toIndex (exclusive)
+    private void addPositions(int fromIndex, int toIndex) {
+        for (int i = fromIndex; i < toIndex; i++) {
+            positions.put(drinks.get(i), i);
+        }
+    }
+
+    // Formats every drink the way drinks.txt stores it, for comparison
+    private static List<String> toLines(List<Drink> drinks) {
+        List<String> lines = new ArrayList<>(drinks.size());
+        for (Drink drink : drinks) {
+            lines.add(InventoryJournal.toLine(drink));
+        }
+        return lines;
+    }
+
+    // Starts a daemon thread that picks up outside edits of the snapshot and journal
+    private void startWatching() {
+        Path directory = snapshotFile.getAbsoluteFile().getParentFile().toPath();
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException e) {
+            e.printStackTrace();  // The catalog still works, it just will not see outside edits
+            return;
+        }
+        WatchService service = watchService;
+        Thread watcher = new Thread(() -> watch(service), "catalog-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    // Waits for file events and applies the edits they announce
+    private void watch(WatchService service) {
+        String snapshotName = snapshotFile.getName();
+        String journalName = journalFile.getName();
+        try {
+            while (true) {
+                WatchKey key = service.take();
+                boolean snapshotChanged = false;
+                boolean journalChanged = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    String name = String.valueOf(event.context());
+                    snapshotChanged |= name.equals(snapshotName);
+                    journalChanged |= name.equals(journalName);
+                    journalChanged |= event.kind() == StandardWatchEventKinds.OVERFLOW;
+                }
+                key.reset();
+                synchronized (this) {
+                    if (snapshotChanged) {
+                        reloadSnapshot();
+                    } else if (journalChanged) {
+                        catchUp();
+                    }
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // The catalog was closed
+        }
+    }
+
+    private void fireChanged(int firstIndex, int lastIndex) {
+        for (Listener listener : listeners) {
+            listener.drinksChanged(firstIndex, lastIndex);
+        }
+    }
+
+    private void fireInserted(int firstIndex, int lastIndex) {
+        for (Listener listener : listeners) {
+            listener.drinksInserted(firstIndex, lastIndex);
+        }
+    }
+
+    private void fireRemoved(int firstIndex, int lastIndex) {
+        for (Listener listener : listeners) {
+            listener.drinksRemoved(firstIndex, lastIndex);
+        }
+    }
+}
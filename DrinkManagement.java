@@ -1,35 +1,44 @@
 // These are imports from Java's standard library for GUI and image operations.
 import java.awt.*;  // Provides classes for creating user interface components.
-import java.awt.image.BufferedImage;  // Represents an image with an accessible buffer of image data.
 import java.io.File;  // Represents file and directory pathnames.
-import java.io.IOException;  // Signals that an I/O exception of some sort has occurred.
-import java.util.ArrayList;  // A resizable-array implementation of the List interface.
 
 // These are Java's extensions for image operations and GUI components.
-import javax.imageio.ImageIO;  // A class containing static convenience methods for locating ImageReaders/Writers.
 import javax.swing.*;  // Contains classes for creating user interfaces and for painting graphics and images.
-import javax.swing.table.DefaultTableModel;  // Default table model.
 
 // This is the main class for managing drinks in a vending machine. It extends JFrame, which means it's a window.
 class DrinkManagement extends JFrame {
 
     // These are member variables for the class.
-    private ArrayList<Drink> drinksList;  // List of drink objects.
+    private final VendingEngine engine;  // Engine holding the shared catalog.
+
     private JTextField nameField, priceField, quantityField;  // Text fields to enter drink details.
     private JLabel imageLabel;  // Label to display the drink image.
     private File selectedImage;  // File object representing the selected drink image.
     private JTable drinksTable;  // Table to display drinks.
-    private DefaultTableModel drinksTableModel;  // Table model for drinksTable.
+    private DrinksTableModel drinksTableModel;  // Table model for drinksTable, bound to the catalog.
+    private static final int THUMBNAIL_SIZE = 50;  // Width and height of the image thumbnails.
 
-    // Constructor for the class.
+    // Constructor for the class, managing the drinks of the machine in the working directory.
     public DrinkManagement() {
+        this(VendingEngine.getDefault());
+    }
+
+    // Constructor for managing the drinks of the given machine.
+    public DrinkManagement(VendingEngine engine) {
+        this.engine = engine;
         // Basic JFrame initialization.
         setTitle("Drink Management");  // Title of the window.
         setSize(500, 400);  // Window size.
         setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);  // Close operation.
         setLayout(new BorderLayout(10, 10));  // Set layout of the frame to BorderLayout.
 
-        drinksList = Drink.loadDrinks();  // Load drinks from storage (not provided in the code).
+        // Stop the table from following the catalog once the window is closed.
+        addWindowListener(new java.awt.event.WindowAdapter() {
+            @Override
+            public void windowClosed(java.awt.event.WindowEvent e) {
+                drinksTableModel.dispose();
+            }
+        });
 
         // Creating a button and adding an action listener to it.
         JButton modifyDrinkButton = new JButton("Modify Drink");
@@ -49,14 +58,14 @@ class DrinkManagement extends JFrame {
         JButton backButton = new JButton("Back");
         backButton.addActionListener(e -> {
             this.dispose();
-            StaffInterface staffInterface = new StaffInterface();
+            StaffInterface staffInterface = new StaffInterface(engine);
             staffInterface.setVisible(true);
         });
 
         JButton homeButton = new JButton("Home");
         homeButton.addActionListener(e -> {
             this.dispose();
-            VendingMachine vendingMachine = new VendingMachine();
+            VendingMachine vendingMachine = new VendingMachine(engine);
             vendingMachine.setVisible(true);
         });
 
@@ -112,25 +121,15 @@ class DrinkManagement extends JFrame {
     }
 
     private JScrollPane createTableScrollPane() {
-        // Define column names for the drinks table.
-        String[] columnNames = {"Drink Name", "Price", "Quantity", "Image"};
-
-        // Create a table model with column names and no initial rows.
-        // Override getColumnClass to set custom rendering for the Image column.
-        drinksTableModel = new DefaultTableModel(columnNames, 0) {
-            @Override
-            public Class<?> getColumnClass(int column) {
-                if (column == 3) return ImageIcon.class;
-                return Object.class;
-            }
-        };
+        // Create a table model bound to the catalog. It follows every change to the drinks, including
+        // edits made outside this window, and repaints only the cells that changed.
+        // The Image column reports ImageIcon as its class, so the table renders the thumbnails.
+        int[] columns = {DrinksTableModel.NAME, DrinksTableModel.PRICE, DrinksTableModel.QUANTITY, DrinksTableModel.IMAGE};
+        drinksTableModel = new DrinksTableModel(engine.getCatalog(), columns, THUMBNAIL_SIZE);
 
         // Create a table using the defined table model.
         drinksTable = new JTable(drinksTableModel);
 
-        // Populate the table with drink data.
-        populateDrinksTable();
-
         // Adjust column width for the Image column and set row height.
         drinksTable.getColumnModel().getColumn(3).setPreferredWidth(60);
         drinksTable.setRowHeight(50);
@@ -154,14 +153,14 @@ class DrinkManagement extends JFrame {
         JButton backButton = new JButton("Back");
         backButton.addActionListener(e -> {
             this.dispose();
-            StaffInterface staffInterface = new StaffInterface();
+            StaffInterface staffInterface = new StaffInterface(engine);
             staffInterface.setVisible(true);
         });
 
         JButton homeButton = new JButton("Home");
         homeButton.addActionListener(e -> {
             this.dispose();
-            VendingMachine vendingMachine = new VendingMachine();
+            VendingMachine vendingMachine = new VendingMachine(engine);
             vendingMachine.setVisible(true);
         });
 
@@ -187,6 +186,12 @@ class DrinkManagement extends JFrame {
             return;
         }
 
+        // A drink that is still being added has no catalog position to change yet.
+        if (drinksTableModel.isPending(selectedRow)) {
+            JOptionPane.showMessageDialog(this, "Please wait until the drink has been added.");
+            return;
+        }
+
         // Define the modification options available to the user.
         String[] options = {"Name", "Price", "Quantity", "Image"};
         // Show a dialog for the user to select which attribute they want to modify.
@@ -203,21 +208,18 @@ class DrinkManagement extends JFrame {
         // Exit the method if the user cancels the dialog.
         if (choice == null) return;
 
-        // Retrieve the selected drink from the list based on the selected row.
-        Drink selectedDrink = drinksList.get(selectedRow);
-
         // Based on the user's choice, prompt for the new value and update the drink.
         switch (choice) {
             case "Name":
                 String newName = JOptionPane.showInputDialog(this, "Enter new name:");
                 if (newName != null && !newName.isEmpty()) {
-                    selectedDrink.setName(newName);
+                    saveChange(selectedRow, DrinksTableModel.NAME, newName, () -> engine.renameDrink(selectedRow, newName));
                 }
                 break;
             case "Price":
                 try {
                     double newPrice = Double.parseDouble(JOptionPane.showInputDialog(this, "Enter new price:"));
-                    selectedDrink.setPrice(newPrice);
+                    saveChange(selectedRow, DrinksTableModel.PRICE, newPrice, () -> engine.changePrice(selectedRow, newPrice));
                 } catch (NumberFormatException e) {
                     JOptionPane.showMessageDialog(this, "Invalid price.");
                 }
@@ -225,7 +227,8 @@ class DrinkManagement extends JFrame {
             case "Quantity":
                 try {
                     int newQuantity = Integer.parseInt(JOptionPane.showInputDialog(this, "Enter new quantity:"));
-                    selectedDrink.setQuantity(newQuantity);
+                    saveChange(selectedRow, DrinksTableModel.QUANTITY, newQuantity,
+                               () -> engine.changeQuantity(selectedRow, newQuantity));
                 } catch (NumberFormatException e) {
                     JOptionPane.showMessageDialog(this, "Invalid quantity.");
                 }
@@ -235,43 +238,24 @@ class DrinkManagement extends JFrame {
                 int returnValue = fileChooser.showOpenDialog(this);
                 if (returnValue == JFileChooser.APPROVE_OPTION) {
                     File newImage = fileChooser.getSelectedFile();
-                    selectedDrink.setImagePath(newImage.getPath());
+                    saveChange(selectedRow, DrinksTableModel.IMAGE, newImage.getPath(),
+                               () -> engine.changeImage(selectedRow, newImage.getPath()));
                 }
                 break;
         }
-
-        // Refresh the table to show the updated data.
-        populateDrinksTable();
-        // Save the updated list of drinks (method not provided, but presumably saves to a file or database).
-        Drink.saveDrinks(drinksList);
+        // The edited cell shows the new value at once; the catalog confirms it once it is saved.
     }
 
-    private void populateDrinksTable() {
-        // Clear all rows from the table model.
-        drinksTableModel.setRowCount(0);
-
-        // Loop through each drink in the drinks list.
-        for (Drink drink : drinksList) {
-            ImageIcon imageIcon = null;
-            try {
-                // Read the image from the drink's image path.
-                BufferedImage image = ImageIO.read(new File(drink.getImagePath()));
-                // Scale the image to fit the table and create an ImageIcon.
-                imageIcon = new ImageIcon(image.getScaledInstance(50, 50, Image.SCALE_DEFAULT));
-            } catch (IOException e) {
-                e.printStackTrace();
-            }
-
-            // Prepare row data for the drink.
-            Object[] rowData = {
-                drink.getName(),
-                drink.getPrice(),
-                drink.getQuantity(),
-                imageIcon
-            };
-            // Add the row to the table model.
-            drinksTableModel.addRow(rowData);
-        }
+    private void saveChange(int row, int kind, Object value, AsyncIo.Action change) {
+        Drink drink = drinksTableModel.getDrink(row);
+        // Show the new value straight away.
+        drinksTableModel.showPendingEdit(row, kind, value);
+        // Apply and journal the change on the I/O thread so a slow disk does not freeze the window.
+        AsyncIo.run(change, null, e -> {
+            // Put the saved value back and tell the user.
+            drinksTableModel.revert(drink);
+            JOptionPane.showMessageDialog(this, "The change could not be saved.");
+        });
     }
 
     private void chooseImage() {
@@ -283,19 +267,19 @@ class DrinkManagement extends JFrame {
         // If the user selected a file.
         if (returnValue == JFileChooser.APPROVE_OPTION) {
             // Get the selected file.
-            selectedImage = fileChooser.getSelectedFile();
-            try {
-                // Read the image from the selected file.
-                BufferedImage image = ImageIO.read(selectedImage);
-                // Scale the image to fit the label and create an ImageIcon.
-                ImageIcon imageIcon = new ImageIcon(image.getScaledInstance(50, 50, Image.SCALE_DEFAULT));
-                // Set the ImageIcon to the image label.
-                imageLabel.setIcon(imageIcon);
-                // Clear the text of the image label.
-                imageLabel.setText("");
-            } catch (IOException e) {
-                e.printStackTrace();
-            }
+            File chosenImage = fileChooser.getSelectedFile();
+            selectedImage = chosenImage;
+            // Load the preview through the shared cache so decoding happens off the Swing thread.
+            ImageIcon imageIcon = ThumbnailCache.getShared().getThumbnail(
+                    chosenImage.getPath(), THUMBNAIL_SIZE, THUMBNAIL_SIZE, icon -> {
+                        if (selectedImage == chosenImage) {  // Ignore previews of an earlier choice.
+                            imageLabel.setIcon(icon);
+                        }
+                    });
+            // Set the ImageIcon to the image label.
+            imageLabel.setIcon(imageIcon);
+            // Clear the text of the image label.
+            imageLabel.setText("");
         }
     }
 
@@ -335,16 +319,18 @@ class DrinkManagement extends JFrame {
 
         // Create a new drink with the given details.
         Drink newDrink = new Drink(name, price, quantity, selectedImage.getPath());
-        // Add the new drink to the drinks list.
-        drinksList.add(newDrink);
-        // Refresh the table to show the new drink.
-        populateDrinksTable();
-        // Save the updated list of drinks.
-        Drink.saveDrinks(drinksList);
-
-        // Notify the user that the drink has been added.
-        JOptionPane.showMessageDialog(this, name + " has been added.");
-        // Clear the form fields.
+        // Show the new drink in the table straight away, at the end until the catalog reports it.
+        drinksTableModel.showPendingDrink(newDrink);
+        // Add the new drink to the catalog; the engine journals it instead of rewriting the whole catalog.
+        // Add it on the I/O thread and notify the user once the drink has been saved.
+        AsyncIo.run(() -> engine.addDrink(newDrink),
+                () -> JOptionPane.showMessageDialog(this, name + " has been added."),
+                e -> {
+                    // Take the drink out of the table again.
+                    drinksTableModel.dropPendingDrink(newDrink);
+                    JOptionPane.showMessageDialog(this, name + " could not be added.");
+                });
+        // Clear the form fields right away so the next drink can be entered.
         clearFormContent();
     }
 
@@ -0,0 +1,378 @@
+// Importing necessary packages for the table model and Swing threading
+import javax.swing.ImageIcon;
+import javax.swing.SwingUtilities;
+import javax.swing.table.AbstractTableModel;
+
+// Importing necessary packages for list data structures
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+// Table model bound directly to the shared drink catalog.
+// Each row remembers the values it last showed. When the catalog reports that some drinks changed,
+// only those rows are compared against the drinks and only the cells whose value differs are
+// repainted, so editing one price repaints one cell. Inserted and removed drinks become row
+// inserts and deletes. Catalog events can come from any thread; they are replayed on the Swing
+// thread in the order they were fired, which is also the order the catalog applied them.
+// The columns shown are chosen by each screen from the column kinds below.
+// A screen can show an edit before it is saved: edited values are written into the row, and the row
+// is read back from its drink if the save fails. Drinks being added are shown after the catalog rows
+// until the catalog reports them.
+class DrinksTableModel extends AbstractTableModel {
+
+    // Column kinds
+    static final int NAME = 0;       // Drink name as text
+    static final int DRINK = 1;      // The drink itself, shown with its image by ImageTextCellRenderer
+    static final int PRICE = 2;      // Price
+    static final int QUANTITY = 3;   // Stock on hand
+    static final int AVAILABLE = 4;  // Stock on hand minus stock held by open checkouts
+    static final int IMAGE = 5;      // Square thumbnail of the drink image
+
+    private static final String[] KIND_NAMES = {"Drink Name", "Drink Name", "Price", "Quantity", "Quantity", "Image"};
+
+    private final DrinkCatalog catalog;
+    private final int[] columns;          // Kind of each column
+    private final int thumbnailSize;      // Width and height of IMAGE thumbnails
+    private final List<Row> rows = new ArrayList<>();  // Values shown, only touched on the Swing thread
+    private final List<Row> pendingRows = new ArrayList<>();  // Drinks being added, shown after the catalog rows
+
+    // Forwards catalog events to the Swing thread
+    private final DrinkCatalog.Listener catalogListener = new DrinkCatalog.Listener() {
+        @Override
+        public void drinksChanged(int firstIndex, int lastIndex) {
+            SwingUtilities.invokeLater(() -> updateRows(firstIndex, lastIndex));
+        }
+
+        @Override
+        public void drinksInserted(int firstIndex, int lastIndex) {
+            SwingUtilities.invokeLater(() -> insertRows(firstIndex, lastIndex));
+        }
+
+        @Override
+        public void drinksRemoved(int firstIndex, int lastIndex) {
+            SwingUtilities.invokeLater(() -> removeRows(firstIndex, lastIndex));
+        }
+    };
+
+    // Creates a model showing the given column kinds over the catalog, with 50 pixel thumbnails
+    DrinksTableModel(DrinkCatalog catalog, int[] columns) {
+        this(catalog, columns, 50);
+    }
+
+    // Creates a model showing the given column kinds over the catalog and starts following it
+    DrinksTableModel(DrinkCatalog catalog, int[] columns, int thumbnailSize) {
+        this.catalog = catalog;
+        this.columns = columns.clone();
+        this.thumbnailSize = thumbnailSize;
+        // Listen before copying so no change is missed; events for drinks the copy already holds are skipped
+        catalog.addListener(catalogListener);
+        for (Drink drink : catalog.getDrinks()) {
+            rows.add(new Row(drink, rows.size()));
+        }
+    }
+
+    // Stops following the catalog; called when the screen closes
+    void dispose() {
+        catalog.removeListener(catalogListener);
+    }
+
+    // Returns the drink shown in a row
+    Drink getDrink(int row) {
+        return rowAt(row).drink;
+    }
+
+    // Tells whether a row shows a drink that is still being added to the catalog
+    boolean isPending(int row) {
+        return row >= rows.size();
+    }
+
+    // Shows a drink that is being added at the end of the table, until the catalog reports it
+    void showPendingDrink(Drink drink) {
+        int index = getRowCount();
+        pendingRows.add(new Row(drink, index));
+        fireTableRowsInserted(index, index);
+    }
+
+    // Takes away a drink that could not be added
+    void dropPendingDrink(Drink drink) {
+        for (int i = 0; i < pendingRows.size(); i++) {
+            if (pendingRows.get(i).drink == drink) {
+                removePendingRow(i);
+                return;
+            }
+        }
+    }
+
+    // Shows a new value of one column kind (NAME, PRICE, QUANTITY or IMAGE) of a row before it is saved
+    void showPendingEdit(int rowIndex, int kind, Object value) {
+        Row row = rowAt(rowIndex);
+        switch (kind) {
+            case NAME:
+                row.name = (String) value;
+                break;
+            case PRICE:
+                row.price = (Double) value;
+                break;
+            case QUANTITY:
+                row.available += (Integer) value - row.quantity;  // The held stock stays held
+                row.quantity = (Integer) value;
+                break;
+            case IMAGE:
+                row.imagePath = (String) value;
+                row.loadThumbnail();
+                break;
+            default:
+                return;
+        }
+        for (int column = 0; column < columns.length; column++) {
+            int shown = columns[column];
+            if (shown == kind || (shown == DRINK && (kind == NAME || kind == IMAGE))
+                    || (shown == AVAILABLE && kind == QUANTITY)) {
+                fireTableCellUpdated(rowIndex, column);
+            }
+        }
+    }
+
+    // Shows the saved values of a drink again after an edit of it could not be saved.
+    // Only called on failures, so looking for the row is not worth an index.
+    void revert(Drink drink) {
+        for (int index = 0; index < rows.size(); index++) {
+            if (rows.get(index).drink == drink) {
+                updateRows(index, index);  // Repaints only the cells that differ from the drink
+                return;
+            }
+        }
+    }
+
+    // Returns the column showing the given kind, or -1 if it is not shown
+    int columnOf(int kind) {
+        for (int column = 0; column < columns.length; column++) {
+            if (columns[column] == kind) {
+                return column;
+            }
+        }
+        return -1;
+    }
+
+    // Re-reads every row and repaints the cells that differ, for changes the catalog does not report
+    // such as stock held by a checkout
+    void refresh() {
+        if (!rows.isEmpty()) {
+            updateRows(0, rows.size() - 1);
+        }
+    }
+
+    @Override
+    public int getRowCount() {
+        return rows.size() + pendingRows.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columns.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return KIND_NAMES[columns[column]];
+    }
+
+    @Override
+    public Class<?> getColumnClass(int column) {
+        switch (columns[column]) {
+            case DRINK:
+                return Drink.class;
+            case PRICE:
+                return Double.class;
+            case QUANTITY:
+            case AVAILABLE:
+                return Integer.class;
+            case IMAGE:
+                return ImageIcon.class;
+            default:
+                return String.class;
+        }
+    }
+
+    @Override
+    public Object getValueAt(int rowIndex, int column) {
+        Row row = rowAt(rowIndex);
+        switch (columns[column]) {
+            case DRINK:
+                return row.drink;
+            case PRICE:
+                return row.price;
+            case QUANTITY:
+                return row.quantity;
+            case AVAILABLE:
+                return row.available;
+            case IMAGE:
+                return row.thumbnail;
+            default:
+                return row.name;
+        }
+    }
+
+    // Compares the rows in the range against their drinks and repaints the cells that changed
+    private void updateRows(int firstIndex, int lastIndex) {
+        List<Drink> drinks = catalog.getDrinks();
+        int last = Math.min(lastIndex, Math.min(rows.size(), drinks.size()) - 1);
+        for (int index = Math.max(firstIndex, 0); index <= last; index++) {
+            Row row = rows.get(index);
+            Drink drink = drinks.get(index);
+            if (row.drink != drink) {
+                // A different drink moved into this row, e.g. after a reload; every cell may differ
+                rows.get(index).index = -1;  // Its pending thumbnail must not repaint the new row
+                rows.set(index, new Row(drink, index));
+                fireTableRowsUpdated(index, index);
+                continue;
+            }
+            boolean nameChanged = !Objects.equals(row.name, drink.getName());
+            boolean imageChanged = !Objects.equals(row.imagePath, drink.getImagePath());
+            boolean priceChanged = row.price != drink.getPrice();
+            boolean quantityChanged = row.quantity != drink.getQuantity();
+            boolean availableChanged = row.available != drink.getAvailableQuantity();
+            row.read();
+            if (imageChanged) {
+                row.loadThumbnail();
+            }
+            for (int column = 0; column < columns.length; column++) {
+                boolean changed;
+                switch (columns[column]) {
+                    case DRINK:
+                        changed = nameChanged || imageChanged;
+                        break;
+                    case PRICE:
+                        changed = priceChanged;
+                        break;
+                    case QUANTITY:
+                        changed = quantityChanged;
+                        break;
+                    case AVAILABLE:
+                        changed = availableChanged;
+                        break;
+                    case IMAGE:
+                        changed = imageChanged;
+                        break;
+                    default:
+                        changed = nameChanged;
+                        break;
+                }
+                if (changed) {
+                    fireTableCellUpdated(index, column);
+                }
+            }
+        }
+    }
+
+    // Adds rows for drinks inserted into the catalog
+    private void insertRows(int firstIndex, int lastIndex) {
+        List<Drink> drinks = catalog.getDrinks();
+        // The catalog only appends drinks, so indexes below the row count are already shown: the
+        // constructor copied them after this event was fired
+        int first = rows.size();
+        int start = Math.max(firstIndex, first);
+        // Later events may already have removed some of these drinks; they arrive as removals next
+        int last = Math.min(lastIndex, drinks.size() - 1);
+        if (last < start) {
+            return;
+        }
+        List<Row> inserted = new ArrayList<>(last - start + 1);
+        for (int index = start; index <= last; index++) {
+            Drink drink = drinks.get(index);
+            for (int i = 0; i < pendingRows.size(); i++) {
+                if (pendingRows.get(i).drink == drink) {
+                    removePendingRow(i);  // The drink this screen added is saved; it moves to its catalog row
+                    break;
+                }
+            }
+            inserted.add(new Row(drink, first + inserted.size()));
+        }
+        rows.addAll(first, inserted);
+        renumberRows(first + inserted.size());
+        fireTableRowsInserted(first, first + inserted.size() - 1);
+    }
+
+    // Drops the rows of drinks removed from the catalog
+    private void removeRows(int firstIndex, int lastIndex) {
+        int last = Math.min(lastIndex, rows.size() - 1);
+        if (last < firstIndex) {
+            return;
+        }
+        for (Row row : rows.subList(firstIndex, last + 1)) {
+            row.index = -1;  // Thumbnails still loading for it are dropped
+        }
+        rows.subList(firstIndex, last + 1).clear();
+        renumberRows(firstIndex);
+        fireTableRowsDeleted(firstIndex, last);
+    }
+
+    // Removes the row of a drink that was being added
+    private void removePendingRow(int pendingIndex) {
+        int index = rows.size() + pendingIndex;
+        pendingRows.remove(pendingIndex).index = -1;
+        renumberRows(index);
+        fireTableRowsDeleted(index, index);
+    }
+
+    // Returns the row shown at the given position, counting the drinks being added after the catalog rows
+    private Row rowAt(int index) {
+        return index < rows.size() ? rows.get(index) : pendingRows.get(index - rows.size());
+    }
+
+    // Updates the index kept by each row from the given position on, after rows were inserted or removed
+    private void renumberRows(int fromIndex) {
+        for (int index = fromIndex; index < getRowCount(); index++) {
+            rowAt(index).index = index;
+        }
+    }
+
+    // Repaints the image cell of a row once its thumbnail has been decoded
+    private void showThumbnail(Row row, String imagePath, ImageIcon icon) {
+        int column = columnOf(IMAGE);
+        int index = row.index;
+        if (index != -1 && column != -1 && Objects.equals(row.imagePath, imagePath)) {
+            row.thumbnail = icon;
+            fireTableCellUpdated(index, column);
+        }
+    }
+
+    // Values of one drink as last shown
+    private final class Row {
+        final Drink drink;
+        int index;  // Position in the table, -1 once the row is no longer shown
+        String name;
+        double price;
+        int quantity;
+        int available;
+        String imagePath;
+        ImageIcon thumbnail;
+
+        Row(Drink drink, int index) {
+            this.drink = drink;
+            this.index = index;
+            read();
+            loadThumbnail();
+        }
+
+        // Copies the current values of the drink
+        void read() {
+            name = drink.getName();
+            price = drink.getPrice();
+            quantity = drink.getQuantity();
+            available = drink.getAvailableQuantity();
+            imagePath = drink.getImagePath();
+        }
+
+        // Takes the thumbnail from the shared cache; a placeholder is shown until it is decoded
+        void loadThumbnail() {
+            if (columnOf(IMAGE) == -1) {
+                thumbnail = null;
+                return;
+            }
+            String path = imagePath;
+            thumbnail = ThumbnailCache.getShared().getThumbnail(
+                    path, thumbnailSize, thumbnailSize, icon -> showThumbnail(this, path, icon));
+        }
+    }
+}
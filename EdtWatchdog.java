@@ -0,0 +1,119 @@
+// Importing necessary packages for the AWT event queue
+import java.awt.AWTEvent;
+import java.awt.EventQueue;
+import java.awt.Toolkit;
+
+// Optional watchdog that reports Swing event handlers blocking the event dispatch thread.
+// It replaces the system EventQueue with a subclass that notes which event is being dispatched
+// and since when. A background thread checks that note every few milliseconds. When a handler
+// has run longer than the threshold, its current stack is printed once and the "edtStalls"
+// counter is incremented. How long it ran is recorded in the "edtStallTime" timer once it
+// returns. Modal dialogs pump events in a nested loop inside a handler. Time spent
+// waiting there for the user is not counted against the handler that opened the dialog.
+// Enable it with the system property vending.edt.stallMillis, e.g. -Dvending.edt.stallMillis=100.
+class EdtWatchdog extends EventQueue {
+
+    // Stall metrics
+    private static final Metrics.Counter STALLS = Metrics.getDefault().counter("edtStalls");
+    private static final LatencyHistogram STALL_TIME = Metrics.getDefault().timer("edtStallTime");
+
+    private final long thresholdNanos;
+    private volatile Dispatch current;  // Event handler running now, or null while waiting for events
+
+    // Creates a watchdog reporting handlers that run longer than the given number of milliseconds
+    EdtWatchdog(long thresholdMillis) {
+        this.thresholdNanos = thresholdMillis * 1_000_000L;
+        Thread checker = new Thread(this::watch, "edt-watchdog");
+        checker.setDaemon(true);
+        checker.start();
+    }
+
+    // Installs a watchdog if the vending.edt.stallMillis system property is set
+    static void installIfConfigured() {
+        Long thresholdMillis = Long.getLong("vending.edt.stallMillis");
+        if (thresholdMillis != null && thresholdMillis > 0) {
+            Toolkit.getDefaultToolkit().getSystemEventQueue().push(new EdtWatchdog(thresholdMillis));
+        }
+    }
+
+    @Override
+    protected void dispatchEvent(AWTEvent event) {
+        Dispatch outer = current;
+        current = new Dispatch(event, Thread.currentThread(), System.nanoTime());
+        try {
+            super.dispatchEvent(event);
+        } finally {
+            finish(current);
+            // Back in the handler that was running before, e.g. after a nested dialog loop returns
+            current = resume(outer);
+        }
+    }
+
+    @Override
+    public AWTEvent getNextEvent() throws InterruptedException {
+        // Waiting for events is idle time, even inside a modal dialog opened by a handler
+        Dispatch waiting = current;
+        finish(waiting);
+        current = null;
+        try {
+            return super.getNextEvent();
+        } finally {
+            current = resume(waiting);
+        }
+    }
+
+    // Records how long a handler ran if it was reported as stalled
+    private static void finish(Dispatch dispatch) {
+        if (dispatch != null && dispatch.reported) {
+            STALL_TIME.record(System.nanoTime() - dispatch.startNanos);
+        }
+    }
+
+    // Restarts the clock of a handler that continues after waiting for or handling nested events
+    private static Dispatch resume(Dispatch dispatch) {
+        return dispatch != null ? new Dispatch(dispatch.event, dispatch.thread, System.nanoTime()) : null;
+    }
+
+    // Body of the checker thread
+    private void watch() {
+        long intervalMillis = Math.max(1, thresholdNanos / 4_000_000L);
+        while (true) {
+            try {
+                Thread.sleep(intervalMillis);
+            } catch (InterruptedException e) {
+                return;
+            }
+            Dispatch dispatch = current;
+            if (dispatch != null && !dispatch.reported && System.nanoTime() - dispatch.startNanos > thresholdNanos) {
+                dispatch.reported = true;
+                report(dispatch);
+            }
+        }
+    }
+
+    // Prints where the event dispatch thread is stuck and counts the stall
+    private void report(Dispatch dispatch) {
+        STALLS.increment();
+        long millis = (System.nanoTime() - dispatch.startNanos) / 1_000_000L;
+        Object source = dispatch.event.getSource();
+        Throwable stall = new Throwable("Event dispatch thread blocked for " + millis + " ms handling "
+                                        + dispatch.event.getClass().getSimpleName()
+                                        + (source != null ? " from " + source.getClass().getName() : ""));
+        stall.setStackTrace(dispatch.thread.getStackTrace());
+        stall.printStackTrace();
+    }
+
+    // An event being handled on the dispatch thread and when its handler started (or resumed)
+    private static final class Dispatch {
+        final AWTEvent event;
+        final Thread thread;
+        final long startNanos;
+        volatile boolean reported;  // Whether this stall was already printed
+
+        Dispatch(AWTEvent event, Thread thread, long startNanos) {
+            this.event = event;
+            this.thread = thread;
+            this.startNanos = startNanos;
+        }
+    }
+}
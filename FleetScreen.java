@@ -0,0 +1,101 @@
+// Importing necessary packages for GUI components and event handling
+import javax.swing.DefaultListModel;
+import javax.swing.JButton;
+import javax.swing.JFrame;
+import javax.swing.JList;
+import javax.swing.JOptionPane;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.ListSelectionModel;
+import java.awt.BorderLayout;
+import java.awt.FlowLayout;
+
+// Importing necessary packages for file operations
+import java.io.File;
+
+// Window of a fleet host, listing the machines it serves.
+// Each machine opens in its own VendingMachine window over that machine's engine, and any number of
+// them can be open at once. The fleet report sums the sales of every machine. New machines start with
+// a copy of the catalog in the working directory.
+class FleetScreen extends JFrame {
+
+    private final VendingFleet fleet;
+    private final DefaultListModel<String> machineIds = new DefaultListModel<>();
+    private final JList<String> machineList = new JList<>(machineIds);
+    private final JButton reportButton;
+
+    // Creates the window over the given fleet
+    FleetScreen(VendingFleet fleet) {
+        this.fleet = fleet;
+        setTitle("Vending Fleet - " + fleet.getDirectory().getAbsolutePath());
+        setSize(450, 400);
+        setLocationRelativeTo(null);
+        setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+
+        machineList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        JButton openButton = new JButton("Open Machine");
+        openButton.addActionListener(e -> openMachine());
+        JButton addButton = new JButton("Add Machine");
+        addButton.addActionListener(e -> addMachine());
+        reportButton = new JButton("Fleet Report");
+        reportButton.addActionListener(e -> showReport());
+
+        JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        buttonPanel.add(openButton);
+        buttonPanel.add(addButton);
+        buttonPanel.add(reportButton);
+
+        add(new JScrollPane(machineList), BorderLayout.CENTER);
+        add(buttonPanel, BorderLayout.SOUTH);
+        refreshMachines();
+    }
+
+    // Lists the machines of the fleet directory, read on the I/O thread
+    private void refreshMachines() {
+        AsyncIo.call(fleet::getMachineIds, ids -> {
+            machineIds.clear();
+            for (String machineId : ids) {
+                machineIds.addElement(machineId);
+            }
+        }, e -> JOptionPane.showMessageDialog(this, "The machines could not be listed."));
+    }
+
+    // Opens the window of the selected machine
+    private void openMachine() {
+        String machineId = machineList.getSelectedValue();
+        if (machineId == null) {
+            JOptionPane.showMessageDialog(this, "Please select a machine first.");
+            return;
+        }
+        // Opening a machine for the first time reads its files, so it happens on the I/O thread
+        AsyncIo.call(() -> fleet.getMachine(machineId), engine -> new VendingMachine(engine).setVisible(true),
+                     e -> JOptionPane.showMessageDialog(this, "Machine " + machineId + " could not be loaded."));
+    }
+
+    // Creates a machine whose catalog starts as a copy of the catalog in the working directory
+    private void addMachine() {
+        String machineId = JOptionPane.showInputDialog(this, "Enter machine id:");
+        if (machineId == null) {
+            return;  // The user cancelled
+        }
+        if (!VendingFleet.isValidMachineId(machineId.trim())) {
+            JOptionPane.showMessageDialog(this, "Machine ids may only contain letters, digits, '.', '_' and '-'.");
+            return;
+        }
+        File template = new File(".");
+        AsyncIo.call(() -> fleet.addMachine(machineId.trim(), template), engine -> refreshMachines(),
+                     e -> JOptionPane.showMessageDialog(this, "The machine could not be created: " + e.getMessage()));
+    }
+
+    // Shows the report over every machine
+    private void showReport() {
+        reportButton.setEnabled(false);  // One report at a time
+        AsyncIo.call(() -> StaffInterface.buildFleetReport(fleet), report -> {
+            reportButton.setEnabled(true);
+            JOptionPane.showMessageDialog(this, report);
+        }, e -> {
+            reportButton.setEnabled(true);
+            JOptionPane.showMessageDialog(this, "The report could not be generated.");
+        });
+    }
+}
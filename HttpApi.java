@@ -0,0 +1,355 @@
+// Importing necessary packages for the embedded HTTP server
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+// Importing necessary packages for network and stream operations
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+
+// Importing necessary packages for collections and concurrency
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+// Optional local HTTP/JSON API over a vending machine, for headless kiosks and back-office scripts.
+// It listens on the loopback interface only and runs every request on its own virtual thread on
+// Java 21 and later, or on a pool of platform threads on older JVMs. The endpoints go through the
+// same VendingEngine calls as the Swing screens:
+//   GET  /drinks          catalog with the price, stock on hand and available stock of every drink
+//   GET  /drinks/{index}  one drink, for stock queries
+//   POST /checkout        body {"<index>": quantity, ...}; holds the stock of every line, then commits
+//   GET  /report          sales aggregates behind the staff "Generate Reports" button
+// Start it with "--serve [PORT]" instead of the window, or next to the window with -Dvending.http.port.
+class HttpApi {
+
+    // Port used by --serve unless another one is given
+    static final int DEFAULT_PORT = 8080;
+
+    // Connections the operating system queues while every request thread is busy
+    private static final int BACKLOG = 1024;
+
+    // Request threads used when virtual threads are not available
+    private static final int FALLBACK_THREADS = 64;
+
+    // Largest request body read, far more than any checkout needs
+    private static final int MAX_BODY_BYTES = 64 * 1024;
+
+    // Request metrics
+    private static final LatencyHistogram REQUEST_TIME = Metrics.getDefault().timer("httpRequest");
+    private static final Metrics.Counter ERRORS = Metrics.getDefault().counter("httpErrors");
+
+    // Server started from the system property, at most one per process
+    private static HttpApi configured;
+
+    private final VendingEngine engine;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    // Creates a server over the engine on the given loopback port; 0 picks a free port
+    HttpApi(VendingEngine engine, int port) throws IOException {
+        this.engine = engine;
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), BACKLOG);
+        executor = newRequestExecutor();
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+    }
+
+    // Starts a server over the engine if the vending.http.port system property is set, and returns it.
+    // Only the first call starts one; later calls return that server, which already holds the port.
+    static synchronized HttpApi startIfConfigured(VendingEngine engine) throws IOException {
+        Integer port = Integer.getInteger("vending.http.port");
+        if (port == null || configured != null) {
+            return configured;
+        }
+        HttpApi api = new HttpApi(engine, port);
+        api.start();
+        configured = api;
+        return api;
+    }
+
+    // Starts accepting requests
+    void start() {
+        server.start();
+        System.out.println("HTTP API listening on http://" + server.getAddress().getHostString() + ":" + getPort() + "/");
+    }
+
+    // Stops accepting requests and waits up to the given number of seconds for those in progress
+    void stop(int delaySeconds) {
+        server.stop(delaySeconds);
+        executor.shutdown();
+        try {
+            executor.awaitTermination(delaySeconds, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Returns the port the server listens on
+    int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    // Runs one virtual thread per request where the JVM has them
+    private static ExecutorService newRequestExecutor() {
+        try {
+            // Looked up reflectively so the application still builds and runs on Java 8
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newFixedThreadPool(FALLBACK_THREADS);
+        }
+    }
+
+    // Routes a request to its endpoint and always completes the exchange
+    private void handle(HttpExchange exchange) {
+        long start = System.nanoTime();
+        try {
+            String method = exchange.getRequestMethod();
+            String path = exchange.getRequestURI().getPath();
+            if (path.equals("/drinks")) {
+                requireMethod(method, "GET");
+                send(exchange, 200, listDrinks());
+            } else if (path.startsWith("/drinks/")) {
+                requireMethod(method, "GET");
+                send(exchange, 200, getDrink(path.substring("/drinks/".length())));
+            } else if (path.equals("/checkout")) {
+                requireMethod(method, "POST");
+                checkout(exchange);
+            } else if (path.equals("/report")) {
+                requireMethod(method, "GET");
+                send(exchange, 200, buildReport());
+            } else {
+                sendError(exchange, 404, "No such endpoint: " + path);
+            }
+        } catch (MethodNotAllowedException e) {
+            sendError(exchange, 405, e.getMessage());
+        } catch (IllegalArgumentException e) {
+            sendError(exchange, 400, e.getMessage());
+        } catch (Exception e) {
+            e.printStackTrace();
+            sendError(exchange, 500, "Internal error");
+        } finally {
+            exchange.close();
+            REQUEST_TIME.record(System.nanoTime() - start);
+        }
+    }
+
+    // Lists every drink of the catalog
+    private String listDrinks() {
+        List<Drink> drinks = engine.getDrinks();
+        StringBuilder json = new StringBuilder("[");
+        for (int index = 0; index < drinks.size(); index++) {
+            if (index > 0) {
+                json.append(',');
+            }
+            appendDrink(json, index, drinks.get(index));
+        }
+        return json.append(']').toString();
+    }
+
+    // Returns the drink at the catalog position given in the path
+    private String getDrink(String indexText) {
+        int index = parseIndex(indexText);
+        StringBuilder json = new StringBuilder();
+        appendDrink(json, index, engine.getDrinks().get(index));
+        return json.toString();
+    }
+
+    // Holds the stock of every requested line and commits the order, as the customer screen does
+    private void checkout(HttpExchange exchange) throws IOException {
+        Map<Integer, Integer> quantities = parseQuantities(readBody(exchange));
+        if (quantities.isEmpty()) {
+            throw new IllegalArgumentException("The cart is empty");
+        }
+        for (Map.Entry<Integer, Integer> line : quantities.entrySet()) {
+            parseIndex(Integer.toString(line.getKey()));
+            if (line.getValue() <= 0) {
+                throw new IllegalArgumentException("Quantities must be greater than zero");
+            }
+        }
+        VendingEngine.Cart cart = engine.newCart();
+        Map<Drink, Integer> indexes = new IdentityHashMap<>();  // Catalog position of each line, to name the short one
+        for (Map.Entry<Integer, Integer> line : quantities.entrySet()) {
+            Drink drink = engine.getDrinks().get(line.getKey());
+            indexes.put(drink, line.getKey());
+            Drink shortDrink = engine.addToCart(cart, drink, line.getValue());
+            if (shortDrink != null) {
+                engine.cancel(cart);  // Releasing the lines held so far
+                send(exchange, 409, "{\"error\":" + quote(shortDrink.getName() + " is out of stock")
+                                    + ",\"drink\":" + indexes.get(shortDrink) + "}");
+                return;
+            }
+        }
+        String orderSummary;
+        try {
+            orderSummary = engine.commit(cart);
+        } catch (IOException | RuntimeException e) {
+            engine.cancel(cart);  // The order was not saved, so its stock goes back on sale
+            throw e;
+        }
+        send(exchange, 200, "{\"summary\":" + quote(orderSummary) + "}");
+    }
+
+    // Returns the sales aggregates shown by the staff report
+    private String buildReport() {
+        SalesReport salesReport = engine.getSalesReport();
+        double[] revenuePerHour = salesReport.getRevenuePerHour(StaffInterface.startOfToday(), StaffInterface.hoursSoFarToday());
+        StringBuilder json = new StringBuilder("{");
+        json.append("\"orders\":").append(salesReport.getOrderCount());
+        json.append(",\"mostPopularDrink\":").append(quote(salesReport.getMostPopularDrink()));
+        json.append(",\"bestSellerToday\":").append(quote(salesReport.getBestSellerToday()));
+        json.append(",\"highestSale\":").append(salesReport.getHighestSale());
+        json.append(",\"revenuePerHourToday\":[");
+        for (int hour = 0; hour < revenuePerHour.length; hour++) {
+            json.append(hour > 0 ? "," : "").append(revenuePerHour[hour]);
+        }
+        return json.append("]}").toString();
+    }
+
+    // Formats one drink as a JSON object
+    private static void appendDrink(StringBuilder json, int index, Drink drink) {
+        json.append("{\"index\":").append(index);
+        json.append(",\"name\":").append(quote(drink.getName()));
+        json.append(",\"price\":").append(drink.getPrice());
+        json.append(",\"quantity\":").append(drink.getQuantity());
+        json.append(",\"available\":").append(drink.getAvailableQuantity());
+        json.append(",\"image\":").append(quote(drink.getImagePath()));
+        json.append('}');
+    }
+
+    // Parses a catalog position, rejecting anything outside the catalog
+    private int parseIndex(String text) {
+        try {
+            int index = Integer.parseInt(text);
+            if (index >= 0 && index < engine.getDrinks().size()) {
+                return index;
+            }
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+        throw new IllegalArgumentException("No drink at position " + text);
+    }
+
+    // Parses a checkout body: a flat JSON object mapping catalog positions to quantities, e.g. {"0": 2, "3": 1}
+    static Map<Integer, Integer> parseQuantities(String body) {
+        String text = body.trim();
+        if (!text.startsWith("{") || !text.endsWith("}")) {
+            throw new IllegalArgumentException("Expected a JSON object mapping drink positions to quantities");
+        }
+        Map<Integer, Integer> quantities = new LinkedHashMap<>();
+        String members = text.substring(1, text.length() - 1).trim();
+        if (members.isEmpty()) {
+            return quantities;
+        }
+        // Keys are digits and values integers, so no comma or colon can appear inside a valid member
+        for (String member : members.split(",", -1)) {
+            String[] parts = member.split(":", -1);
+            String key = parts[0].trim();
+            if (parts.length != 2 || key.length() < 3 || !key.startsWith("\"") || !key.endsWith("\"")) {
+                throw new IllegalArgumentException("Malformed member: " + member.trim());
+            }
+            try {
+                quantities.merge(Integer.parseInt(key.substring(1, key.length() - 1)),
+                                 Integer.parseInt(parts[1].trim()), Integer::sum);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Malformed member: " + member.trim());
+            }
+        }
+        return quantities;
+    }
+
+    // Reads the request body as UTF-8
+    private static String readBody(HttpExchange exchange) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        try (InputStream in = exchange.getRequestBody()) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                if (body.size() + read > MAX_BODY_BYTES) {
+                    throw new IllegalArgumentException("Request body too large");
+                }
+                body.write(buffer, 0, read);
+            }
+        }
+        return new String(body.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    // Fails with 405 unless the request uses the expected method
+    private static void requireMethod(String method, String expected) {
+        if (!method.equals(expected)) {
+            throw new MethodNotAllowedException("Use " + expected);
+        }
+    }
+
+    // Sends an error as a JSON object, ignoring clients that went away
+    private static void sendError(HttpExchange exchange, int status, String message) {
+        ERRORS.increment();
+        try {
+            send(exchange, status, "{\"error\":" + quote(message) + "}");
+        } catch (IOException e) {
+            // The client closed the connection; nothing left to tell it
+        }
+    }
+
+    // Sends a JSON response
+    private static void send(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    // Formats a string as a JSON string literal, or null
+    static String quote(String value) {
+        if (value == null) {
+            return "null";
+        }
+        StringBuilder json = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    json.append("\\\"");
+                    break;
+                case '\\':
+                    json.append("\\\\");
+                    break;
+                case '\n':
+                    json.append("\\n");
+                    break;
+                case '\r':
+                    json.append("\\r");
+                    break;
+                case '\t':
+                    json.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+            }
+        }
+        return json.append('"').toString();
+    }
+
+    // Thrown for a request using the wrong HTTP method
+    private static final class MethodNotAllowedException extends IllegalArgumentException {
+        MethodNotAllowedException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+// Importing necessary packages for image handling
+import java.awt.Dimension;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+// Importing necessary packages for file operations
+import java.io.File;
+import java.io.IOException;
+
+// Importing necessary packages for collections
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Reads image dimensions from file headers without decoding any pixels.
+// Results are cached per file and modification time, and whole lists of images are probed in
+// parallel, so sizing a table after its tallest image costs a few header reads instead of full decodes.
+class ImageProbe {
+
+    // Size recorded for files that are missing or in a format no ImageReader understands
+    private static final Dimension UNKNOWN = new Dimension(0, 0);
+
+    // Dimensions already read, keyed by image path
+    private static final ConcurrentHashMap<String, CachedSize> SIZES = new ConcurrentHashMap<>();
+
+    // Returns the dimensions of the image, or a 0 x 0 size if it cannot be read
+    static Dimension getSize(String imagePath) {
+        if (imagePath == null) {
+            return UNKNOWN;
+        }
+        File file = new File(imagePath);
+        long lastModified = file.lastModified();
+        CachedSize cached = SIZES.get(imagePath);
+        if (cached != null && cached.lastModified == lastModified) {
+            return cached.size;
+        }
+        Dimension size = readSize(file);
+        SIZES.put(imagePath, new CachedSize(size, lastModified));
+        return size;
+    }
+
+    // Returns the height of the tallest image, probing the files in parallel
+    static int getMaxHeight(List<String> imagePaths) {
+        return imagePaths.parallelStream()
+                         .mapToInt(path -> getSize(path).height)
+                         .max()
+                         .orElse(0);
+    }
+
+    // Reads the width and height of the first image in the file from its header
+    private static Dimension readSize(File file) {
+        if (!file.isFile()) {
+            return UNKNOWN;
+        }
+        try (ImageInputStream input = ImageIO.createImageInputStream(file)) {
+            if (input == null) {
+                return UNKNOWN;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return UNKNOWN;  // Not an image format this JVM can read
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);  // Seek forward only and skip metadata
+                return new Dimension(reader.getWidth(0), reader.getHeight(0));
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException e) {
+            return UNKNOWN;
+        }
+    }
+
+    // Dimensions read from a particular revision of a file
+    private static final class CachedSize {
+        final Dimension size;
+        final long lastModified;
+
+        CachedSize(Dimension size, long lastModified) {
+            this.size = size;
+            this.lastModified = lastModified;
+        }
+    }
+}
@@ -1,6 +1,11 @@
 // Import the Component class from the java.awt package, which provides graphical components.
 import java.awt.Component;
 
+// Import the Map and WeakHashMap classes from the java.util package, which hold the shared icon cache, and Objects to compare image paths.
+import java.util.Map;
+import java.util.Objects;
+import java.util.WeakHashMap;
+
 // Import the ImageIcon class from the javax.swing package, which provides support for icons in Swing components.
 import javax.swing.ImageIcon;
 
@@ -16,6 +21,11 @@ import javax.swing.JLabel;
 // Define a new class "ImageTextCellRenderer" that extends (inherits from) the DefaultTableCellRenderer class.
 class ImageTextCellRenderer extends DefaultTableCellRenderer {
 
+    // Icons already scaled to the row height, shared by all renderers and keyed by drink.
+    // Each icon remembers the image path it was made from, so a drink whose image changed gets a new one.
+    // Weak keys let drinks that are no longer shown drop out of the cache on their own.
+    private static final Map<Drink, CachedIcon> ICONS = new WeakHashMap<>();
+
     // Override the getTableCellRendererComponent method from the DefaultTableCellRenderer class.
     @Override
     public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected, boolean hasFocus, int row, int column) {
@@ -32,11 +42,56 @@ class ImageTextCellRenderer extends DefaultTableCellRenderer {
             // Set the text of the label to the name of the drink.
             label.setText(drink.getName());
             
-            // Create a new ImageIcon using the image path of the drink and set it as the icon of the label.
-            label.setIcon(new ImageIcon(drink.getImagePath()));
+            // Take the pre-scaled icon of the drink from the shared cache instead of loading the image on every paint.
+            label.setIcon(iconFor(drink, table));
+        } else {
+            // Renderer components are reused, so clear any icon left over from a drink cell.
+            label.setIcon(null);
         }
 
         // Return the modified JLabel to be used as the renderer for the cell.
         return label;
     }
+
+    // Return the cached icon of a drink, asking the thumbnail cache to decode it on the first request.
+    private static ImageIcon iconFor(Drink drink, JTable table) {
+        int rowHeight = table.getRowHeight();
+        String imagePath = drink.getImagePath();
+        synchronized (ICONS) {
+            CachedIcon cached = ICONS.get(drink);
+            if (cached != null && cached.maxHeight == rowHeight && Objects.equals(cached.imagePath, imagePath)) {
+                return cached.icon;  // Either the finished icon or the placeholder shown while it loads.
+            }
+
+            ThumbnailCache thumbnails = ThumbnailCache.getShared();
+            ImageIcon icon = thumbnails.getFittedThumbnail(imagePath, rowHeight, decoded -> {
+                synchronized (ICONS) {
+                    CachedIcon current = ICONS.get(drink);
+                    // Skip results for an image path or row height that was replaced meanwhile.
+                    if (current != null && current.loading && current.maxHeight == rowHeight
+                            && Objects.equals(current.imagePath, imagePath)) {
+                        ICONS.put(drink, new CachedIcon(decoded, imagePath, rowHeight, false));
+                    }
+                }
+                table.repaint();
+            });
+            ICONS.put(drink, new CachedIcon(icon, imagePath, rowHeight, thumbnails.isPlaceholder(icon)));
+            return icon;
+        }
+    }
+
+    // An icon of one image scaled for a given row height, or the placeholder shown while it is being decoded.
+    private static final class CachedIcon {
+        final ImageIcon icon;
+        final String imagePath;
+        final int maxHeight;
+        final boolean loading;
+
+        CachedIcon(ImageIcon icon, String imagePath, int maxHeight, boolean loading) {
+            this.icon = icon;
+            this.imagePath = imagePath;
+            this.maxHeight = maxHeight;
+            this.loading = loading;
+        }
+    }
 }
@@ -0,0 +1,488 @@
+// Importing necessary packages for file operations
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.Charset;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+// Importing necessary packages for list and map data structures
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+// Append-only journal of inventory changes layered on top of the drinks.txt snapshot.
+// Every stock or catalog change is written as one small delta line (for example "QTY,3,-2"),
+// so a checkout only costs one line per cart entry instead of a rewrite of the whole catalog.
+// When the journal grows past COMPACT_THRESHOLD entries it is folded back into a fresh snapshot.
+// The snapshot is either the drinks.txt text file or a BinaryCatalog file (drinks.bin).
+//
+// A checkout is journaled as one SALE line carrying its order log record number, and every snapshot
+// stores how many records of the order log its stock reflects. After a crash between writing an order
+// and journaling its stock, the orders the journal does not cover can be found and replayed, and the
+// work at startup is bounded by the compaction threshold plus the checkouts that were in flight.
+class InventoryJournal {
+
+    // Default file names used by the application
+    static final String SNAPSHOT_FILE = "drinks.txt";
+    static final String JOURNAL_FILE = "drinks.journal";
+
+    // Number of journal entries after which the next load compacts the journal into the snapshot
+    static final int COMPACT_THRESHOLD = 1000;
+
+    // Time taken to persist catalog changes: journal appends and compactions into a new snapshot
+    private static final LatencyHistogram SAVE_TIME = Metrics.getDefault().timer("catalogSave");
+    private static final LatencyHistogram COMPACT_TIME = Metrics.getDefault().timer("catalogCompact");
+
+    // Header line that ties a snapshot and its journal to the same generation
+    private static final String GENERATION_PREFIX = "#generation,";
+
+    // Header line of a text snapshot holding the number of order log records its stock reflects
+    private static final String ORDERS_PREFIX = "#orders,";
+
+    // Journal entry types
+    private static final String ADD = "ADD";
+    private static final String QUANTITY_DELTA = "QTY";
+    private static final String QUANTITY = "SETQTY";
+    private static final String PRICE = "PRICE";
+    private static final String NAME = "NAME";
+    private static final String IMAGE = "IMAGE";
+    private static final String SALE = "SALE";      // SALE,order,index,delta[,index,delta...]
+    private static final String ORDERS = "ORDERS";  // ORDERS,count: every order below count is reflected
+
+    private final File snapshotFile;  // Full catalog written at the last compaction
+    private final File journalFile;   // Deltas applied on top of the snapshot
+    private int entryCount;           // Entries in the journal file as last read or written by this instance
+    private int ordersApplied = -1;   // Order log records below this number are all reflected, -1 if unknown
+    private final TreeSet<Integer> ordersAhead = new TreeSet<>();  // Reflected records above ordersApplied
+
+    // Creates a journal over the given snapshot and journal files
+    InventoryJournal(File snapshotFile, File journalFile) {
+        this.snapshotFile = snapshotFile;
+        this.journalFile = journalFile;
+    }
+
+    // Loads the snapshot, replays the journal on top of it and compacts if the journal got too long
+    synchronized ArrayList<Drink> load() {
+        ArrayList<Drink> drinks = new ArrayList<>();
+        load(drinks);
+        if (needsCompaction()) {
+            compact(drinks);  // The list was just rebuilt from disk, so it is safe to fold it back
+        }
+        return drinks;
+    }
+
+    // Loads the snapshot and journal into the given list and returns the journal position reached
+    synchronized long load(List<Drink> drinks) {
+        long generation = readSnapshot(drinks);
+        entryCount = 0;
+        return replayJournal(drinks, generation, 0);
+    }
+
+    // Applies the entries appended to the journal after the given position and returns the new position.
+    // Used to pick up entries written by another process.
+    synchronized long replayFrom(List<Drink> drinks, long position) {
+        return replayJournal(drinks, readGeneration(snapshotFile), position);
+    }
+
+    // Returns the current length of the journal file
+    synchronized long length() {
+        return journalFile.length();
+    }
+
+    // Tells whether the journal has grown past the compaction threshold. Compaction waits while
+    // concurrent checkouts have journaled out of order, as a snapshot only stores a single order count.
+    synchronized boolean needsCompaction() {
+        return entryCount >= COMPACT_THRESHOLD && ordersAhead.isEmpty();
+    }
+
+    // Returns the number of order log records whose stock is reflected, counting up to the first one
+    // missing, or -1 if the snapshot and journal predate order numbers
+    synchronized int getOrdersApplied() {
+        return ordersApplied;
+    }
+
+    // Returns the numbers of the order log records below orderCount whose stock is not reflected
+    synchronized List<Integer> getMissingOrders(int orderCount) {
+        List<Integer> missing = new ArrayList<>();
+        for (int order = Math.max(0, ordersApplied); order < orderCount; order++) {
+            if (!ordersAhead.contains(order)) {
+                missing.add(order);
+            }
+        }
+        return missing;
+    }
+
+    // Records the stock sold by order log record orderNumber in a single line and returns the new journal length.
+    // positions maps each drink to its index in the catalog, so the cost only depends on the lines sold.
+    synchronized long recordSale(Map<Drink, Integer> positions, Map<Drink, Integer> sold, int orderNumber) {
+        StringBuilder entry = new StringBuilder(SALE).append(',').append(orderNumber);
+        for (Map.Entry<Drink, Integer> line : sold.entrySet()) {
+            Integer index = positions.get(line.getKey());
+            if (index != null) {
+                entry.append(',').append(index).append(',').append(-line.getValue());
+            }
+        }
+        long length = append(entry.toString());
+        orderApplied(orderNumber);
+        return length;
+    }
+
+    // Records that the stock reflects every order log record below orderCount and returns the new journal length
+    synchronized long recordOrdersApplied(int orderCount) {
+        long length = append(ORDERS + "," + orderCount);
+        ordersApplied(orderCount);
+        return length;
+    }
+
+    // Records a newly added drink and returns the new journal length
+    long recordAdd(Drink drink) {
+        return append(ADD + "," + toLine(drink));
+    }
+
+    // Records a quantity set by staff for the drink at the given index and returns the new journal length
+    long recordQuantity(int index, int quantity) {
+        return append(QUANTITY + "," + index + "," + quantity);
+    }
+
+    // Records a price change for the drink at the given index and returns the new journal length
+    long recordPrice(int index, double price) {
+        return append(PRICE + "," + index + "," + price);
+    }
+
+    // Records a name change for the drink at the given index and returns the new journal length
+    long recordName(int index, String name) {
+        return append(NAME + "," + index + "," + name);
+    }
+
+    // Records an image change for the drink at the given index and returns the new journal length
+    long recordImage(int index, String imagePath) {
+        return append(IMAGE + "," + index + "," + imagePath);
+    }
+
+    // Writes the full list as a new snapshot generation and starts an empty journal for it
+    synchronized void compact(List<Drink> drinks) {
+        long start = System.nanoTime();
+        try {
+            writeCompacted(drinks);
+        } finally {
+            COMPACT_TIME.record(System.nanoTime() - start);
+        }
+    }
+
+    // Writes the list as a new snapshot generation that reflects the given number of order log records,
+    // for snapshots converted from another journal
+    synchronized void compact(List<Drink> drinks, int ordersApplied) {
+        ordersApplied(ordersApplied);
+        compact(drinks);
+    }
+
+    // Writes the new snapshot and resets the journal, keeping both untouched if the snapshot cannot be written
+    private void writeCompacted(List<Drink> drinks) {
+        long generation = readGeneration(snapshotFile) + 1;
+        File tempFile = new File(snapshotFile.getPath() + ".tmp");
+        try {
+            if (BinaryCatalog.isBinary(snapshotFile)) {
+                BinaryCatalog.write(tempFile, drinks, generation, ordersApplied);
+            } else {
+                writeTextSnapshot(tempFile, drinks, generation, ordersApplied);
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            return;  // Keep the old snapshot and journal untouched
+        }
+
+        try {
+            // Once the new snapshot is in place the old journal no longer matches its generation,
+            // so a crash before the journal is reset below cannot replay it twice.
+            moveReplacing(tempFile, snapshotFile);
+            try (BufferedWriter writer = new BufferedWriter(new FileWriter(journalFile))) {
+                writer.write(GENERATION_PREFIX + generation);
+                writer.newLine();
+            }
+            entryCount = 0;
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    // Writes the drinks as a drinks.txt snapshot of the given generation, reflecting the given number of orders
+    private static void writeTextSnapshot(File file, List<Drink> drinks, long generation, int ordersApplied)
+            throws IOException {
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(file))) {
+            writer.write(GENERATION_PREFIX + generation);
+            writer.newLine();
+            if (ordersApplied >= 0) {
+                writer.write(ORDERS_PREFIX + ordersApplied);
+                writer.newLine();
+            }
+            for (Drink drink : drinks) {
+                writer.write(toLine(drink));
+                writer.newLine();
+            }
+        }
+    }
+
+    // Formats a drink the way it is stored in drinks.txt
+    static String toLine(Drink drink) {
+        return drink.getName() + "," + drink.getPrice() + "," + drink.getQuantity() + "," + drink.getImagePath();
+    }
+
+    // Parses a drinks.txt line, returning null for lines that are not in the expected format
+    static Drink parseLine(String line) {
+        String[] parts = line.split(",");
+        if (parts.length != 4) {  // Checking if the data format is correct
+            return null;
+        }
+        try {
+            String name = parts[0];
+            double price = Double.parseDouble(parts[1]);
+            int quantity = Integer.parseInt(parts[2]);
+            String imagePath = parts[3];
+            return new Drink(name, price, quantity, imagePath);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    // Reads the snapshot into the list and returns its generation
+    private long readSnapshot(List<Drink> drinks) {
+        ordersApplied = -1;
+        ordersAhead.clear();
+        if (BinaryCatalog.isBinary(snapshotFile)) {
+            try {
+                long generation = BinaryCatalog.read(snapshotFile, drinks);
+                ordersApplied = BinaryCatalog.readOrdersApplied(snapshotFile);
+                return generation;
+            } catch (IOException e) {
+                e.printStackTrace();
+                return 0;
+            }
+        }
+        long generation = 0;
+        try (BufferedReader reader = new BufferedReader(new FileReader(snapshotFile))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith(GENERATION_PREFIX)) {
+                    generation = parseGeneration(line);
+                    continue;
+                }
+                if (line.startsWith(ORDERS_PREFIX)) {
+                    try {
+                        ordersApplied = Integer.parseInt(line.substring(ORDERS_PREFIX.length()).trim());
+                    } catch (NumberFormatException e) {
+                        ordersApplied = -1;
+                    }
+                    continue;
+                }
+                Drink drink = parseLine(line);
+                if (drink != null) {
+                    drinks.add(drink);
+                }
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        return generation;
+    }
+
+    // Applies the complete journal lines after the given position and returns the position after the last one
+    private long replayJournal(List<Drink> drinks, long snapshotGeneration, long position) {
+        if (!journalFile.exists()) {
+            return 0;
+        }
+        byte[] bytes;
+        try (RandomAccessFile file = new RandomAccessFile(journalFile, "r")) {
+            if (file.length() <= position) {
+                return file.length();
+            }
+            bytes = new byte[(int) (file.length() - position)];
+            file.seek(position);
+            file.readFully(bytes);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return position;
+        }
+
+        int lineStart = 0;
+        for (int i = 0; i < bytes.length; i++) {
+            if (bytes[i] != '\n') {
+                continue;
+            }
+            String line = new String(bytes, lineStart, i - lineStart, Charset.defaultCharset()).trim();
+            if (line.startsWith(GENERATION_PREFIX)) {
+                if (parseGeneration(line) != snapshotGeneration) {
+                    return position + bytes.length;  // The journal was already folded into this snapshot
+                }
+            } else if (apply(drinks, line)) {
+                entryCount++;
+            }
+            lineStart = i + 1;
+        }
+        // A torn last line without its newline is left for the next read
+        return position + lineStart;
+    }
+
+    // Applies a single journal entry, ignoring torn or unknown lines
+    private boolean apply(List<Drink> drinks, String line) {
+        String[] parts = line.split(",", 3);
+        if (parts.length < 2) {
+            return false;
+        }
+        if (ADD.equals(parts[0])) {
+            Drink drink = parseLine(line.substring(ADD.length() + 1));
+            if (drink == null) {
+                return false;
+            }
+            drinks.add(drink);
+            return true;
+        }
+        if (SALE.equals(parts[0]) || ORDERS.equals(parts[0])) {
+            return applySale(drinks, line);
+        }
+        if (parts.length != 3) {
+            return false;
+        }
+        try {
+            int index = Integer.parseInt(parts[1]);
+            if (index < 0 || index >= drinks.size()) {
+                return false;
+            }
+            Drink drink = drinks.get(index);
+            switch (parts[0]) {
+                case QUANTITY_DELTA:
+                    drink.adjustQuantity(Integer.parseInt(parts[2]));
+                    return true;
+                case QUANTITY:
+                    drink.setQuantity(Integer.parseInt(parts[2]));
+                    return true;
+                case PRICE:
+                    drink.setPrice(Double.parseDouble(parts[2]));
+                    return true;
+                case NAME:
+                    drink.setName(parts[2]);
+                    return true;
+                case IMAGE:
+                    drink.setImagePath(parts[2]);
+                    return true;
+                default:
+                    return false;
+            }
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    // Applies a SALE line, or an ORDERS line which sets the order count alone
+    private boolean applySale(List<Drink> drinks, String line) {
+        String[] parts = line.split(",");
+        try {
+            if (ORDERS.equals(parts[0])) {
+                ordersApplied(Integer.parseInt(parts[1]));
+                return true;
+            }
+            if (parts.length % 2 != 0) {
+                return false;
+            }
+            for (int i = 2; i < parts.length; i += 2) {
+                int index = Integer.parseInt(parts[i]);
+                if (index >= 0 && index < drinks.size()) {
+                    drinks.get(index).adjustQuantity(Integer.parseInt(parts[i + 1]));
+                }
+            }
+            orderApplied(Integer.parseInt(parts[1]));
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    // Notes that the stock of one order log record is reflected
+    private void orderApplied(int orderNumber) {
+        if (orderNumber == ordersApplied) {
+            ordersApplied(orderNumber + 1);
+        } else if (orderNumber > ordersApplied) {
+            ordersAhead.add(orderNumber);
+        }
+    }
+
+    // Notes that the stock of every order log record below orderCount is reflected
+    private void ordersApplied(int orderCount) {
+        ordersApplied = Math.max(ordersApplied, orderCount);
+        ordersAhead.headSet(ordersApplied).clear();
+        while (ordersAhead.remove(ordersApplied)) {
+            ordersApplied++;
+        }
+    }
+
+    // Appends a single entry to the journal and returns the new journal length
+    private long append(String entry) {
+        List<String> entries = new ArrayList<>();
+        entries.add(entry);
+        return append(entries);
+    }
+
+    // Appends the entries to the journal in a single write and returns the new journal length
+    private synchronized long append(List<String> entries) {
+        if (entries.isEmpty()) {
+            return journalFile.length();
+        }
+        StringBuilder text = new StringBuilder();
+        if (!journalFile.exists() || journalFile.length() == 0) {
+            // A fresh journal starts with the generation of the snapshot it applies to
+            text.append(GENERATION_PREFIX).append(readGeneration(snapshotFile)).append(System.lineSeparator());
+        }
+        for (String entry : entries) {
+            text.append(entry).append(System.lineSeparator());
+        }
+        long start = System.nanoTime();
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(journalFile, true))) {
+            writer.write(text.toString());
+            entryCount += entries.size();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        SAVE_TIME.record(System.nanoTime() - start);
+        return journalFile.length();
+    }
+
+    // Reads the generation header of a file, or 0 if it has none
+    private static long readGeneration(File file) {
+        if (BinaryCatalog.isBinary(file)) {
+            return BinaryCatalog.readGeneration(file);
+        }
+        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+            String line = reader.readLine();
+            if (line != null && line.startsWith(GENERATION_PREFIX)) {
+                return parseGeneration(line);
+            }
+        } catch (IOException e) {
+            // A missing snapshot simply has no generation yet
+        }
+        return 0;
+    }
+
+    // Parses the number out of a generation header line
+    private static long parseGeneration(String line) {
+        try {
+            return Long.parseLong(line.substring(GENERATION_PREFIX.length()).trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    // Replaces the target with the source, atomically where the file system allows it
+    static void moveReplacing(File source, File target) throws IOException {
+        try {
+            Files.move(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+// Importing necessary packages for lock-free counters
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Concurrent histogram of latencies in nanoseconds with about 1.5% precision.
+// Values are counted in log-linear buckets: every power of two is split into 64 equal
+// sub-buckets, so recording is a couple of shifts and one atomic increment and the memory
+// used does not depend on the number of samples. Any number of threads may record at once.
+class LatencyHistogram {
+
+    // Values below this are counted exactly; above it each power of two gets SUB_BUCKETS buckets
+    private static final int LINEAR_LIMIT = 128;
+    private static final int SUB_BUCKETS = 64;
+
+    // Enough buckets for any non-negative long
+    private static final int BUCKET_COUNT = bucketOf(Long.MAX_VALUE) + 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong totalCount = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    // Records one latency
+    void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(bucketOf(value));
+        totalCount.incrementAndGet();
+        totalNanos.addAndGet(value);
+        long max = maxNanos.get();
+        while (value > max && !maxNanos.compareAndSet(max, value)) {
+            max = maxNanos.get();
+        }
+    }
+
+    // Returns the number of recorded latencies
+    long getCount() {
+        return totalCount.get();
+    }
+
+    // Returns the mean latency, or 0 if nothing was recorded
+    double getMean() {
+        long count = totalCount.get();
+        return count == 0 ? 0 : (double) totalNanos.get() / count;
+    }
+
+    // Returns the largest recorded latency
+    long getMax() {
+        return maxNanos.get();
+    }
+
+    // Returns the latency below which the given fraction (0 to 1) of the samples fall,
+    // as the upper bound of the bucket that holds it, never above the recorded maximum
+    long getPercentile(double fraction) {
+        long count = totalCount.get();
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(fraction * count));
+        long seen = 0;
+        for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+            seen += counts.get(bucket);
+            if (seen >= rank) {
+                return Math.min(upperBound(bucket), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    // Adds the samples of another histogram to this one
+    void add(LatencyHistogram other) {
+        for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+            long count = other.counts.get(bucket);
+            if (count != 0) {
+                counts.addAndGet(bucket, count);
+            }
+        }
+        totalCount.addAndGet(other.totalCount.get());
+        totalNanos.addAndGet(other.totalNanos.get());
+        long otherMax = other.getMax();
+        long max = maxNanos.get();
+        while (otherMax > max && !maxNanos.compareAndSet(max, otherMax)) {
+            max = maxNanos.get();
+        }
+    }
+
+    // Forgets every recorded latency
+    void reset() {
+        for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+            counts.set(bucket, 0);
+        }
+        totalCount.set(0);
+        totalNanos.set(0);
+        maxNanos.set(0);
+    }
+
+    // Summarizes the histogram in milliseconds, e.g. for a report line
+    String summary() {
+        return String.format("count=%d mean=%.3fms p50=%.3fms p99=%.3fms p999=%.3fms max=%.3fms",
+                             getCount(), getMean() / 1e6, getPercentile(0.50) / 1e6, getPercentile(0.99) / 1e6,
+                             getPercentile(0.999) / 1e6, getMax() / 1e6);
+    }
+
+    // Returns the bucket a value is counted in
+    private static int bucketOf(long value) {
+        if (value < LINEAR_LIMIT) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - 6;  // Keeps the top 7 bits of the value
+        return SUB_BUCKETS * shift + (int) (value >>> shift);
+    }
+
+    // Returns the largest value counted in a bucket
+    private static long upperBound(int bucket) {
+        if (bucket < LINEAR_LIMIT) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        long top = bucket % SUB_BUCKETS + SUB_BUCKETS;
+        return ((top + 1) << shift) - 1;
+    }
+}
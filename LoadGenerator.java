@@ -0,0 +1,313 @@
+// Importing necessary packages for file operations
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+// Importing necessary packages for collections and concurrency
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Simulates many kiosks checking out at once against one VendingEngine and reports throughput
+// and latency percentiles. Every simulated customer runs on its own virtual thread when the JVM
+// has them (Java 21 and later) and on a bounded pool of platform threads otherwise. Customers
+// browse the catalog, fill a cart and check out through the same add-to-cart/commit path the
+// customer screen uses, on a copy of the data files so the real inventory is never touched.
+//
+// Usage: java -jar vending-machine.jar --load [--customers N] [--orders N] [--replay orders.txt]
+//                                             [--data DIR] [--think MS] [--keep-stock]
+class LoadGenerator {
+
+    // Stock given to every drink before the run so customers measure checkout rather than sell-outs
+    private static final int RESTOCK_QUANTITY = 1_000_000;
+
+    // Platform threads used when virtual threads are not available
+    private static final int FALLBACK_THREADS = 256;
+
+    private int customers = 1000;         // Number of simulated concurrent customers
+    private int ordersPerCustomer = 10;   // Checkouts each customer performs
+    private File replayFile;              // Order log replayed as the workload, or null for random carts
+    private File dataDirectory = new File(".");  // Directory the catalog is copied from
+    private long thinkMillis;             // Pause between browsing and checking out
+    private boolean keepStock;            // Whether to run with the copied stock levels
+
+    private final LatencyHistogram browseLatency = new LatencyHistogram();
+    private final LatencyHistogram checkoutLatency = new LatencyHistogram();
+    private final LatencyHistogram orderLatency = new LatencyHistogram();
+    private final AtomicLong completedOrders = new AtomicLong();
+    private final AtomicLong soldOutOrders = new AtomicLong();
+    private final AtomicLong skippedOrders = new AtomicLong();
+    private final AtomicLong failedOrders = new AtomicLong();
+
+    // Entry point, also reached through "VendingMachine --load"
+    public static void main(String[] args) {
+        LoadGenerator generator = new LoadGenerator();
+        try {
+            generator.parseArguments(args);
+            generator.run();
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Usage: --load [--customers N] [--orders N] [--replay FILE] [--data DIR] [--think MS] [--keep-stock]");
+        } catch (IOException | InterruptedException e) {
+            e.printStackTrace();
+        }
+    }
+
+    // Reads the command line options
+    private void parseArguments(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            String option = args[i];
+            if (option.equals("--keep-stock")) {
+                keepStock = true;
+                continue;
+            }
+            if (!option.matches("--(customers|orders|replay|data|think)")) {
+                throw new IllegalArgumentException("Unknown option " + option);
+            }
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException("Missing value for " + option);
+            }
+            String value = args[++i];
+            try {
+                switch (option) {
+                    case "--customers":
+                        customers = Integer.parseInt(value);
+                        break;
+                    case "--orders":
+                        ordersPerCustomer = Integer.parseInt(value);
+                        break;
+                    case "--replay":
+                        replayFile = new File(value);
+                        break;
+                    case "--data":
+                        dataDirectory = new File(value);
+                        break;
+                    case "--think":
+                        thinkMillis = Long.parseLong(value);
+                        break;
+                    default:
+                        break;
+                }
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid number for " + option + ": " + value);
+            }
+        }
+        if (customers < 1 || ordersPerCustomer < 1) {
+            throw new IllegalArgumentException("--customers and --orders must be at least 1");
+        }
+    }
+
+    // Copies the catalog, runs every customer to completion and prints the report
+    private void run() throws IOException, InterruptedException {
+        File workDirectory = Files.createTempDirectory("vending-load").toFile();
+        try {
+            copyIfExists(InventoryJournal.SNAPSHOT_FILE, workDirectory);
+            copyIfExists(BinaryCatalog.CATALOG_FILE, workDirectory);
+            copyIfExists(InventoryJournal.JOURNAL_FILE, workDirectory);
+            VendingEngine engine = new VendingEngine(workDirectory);
+            List<Drink> drinks = engine.getDrinks();
+            if (drinks.isEmpty()) {
+                System.err.println("No drinks in " + BinaryCatalog.snapshotIn(dataDirectory));
+                return;
+            }
+            if (!keepStock) {
+                for (int i = 0; i < drinks.size(); i++) {
+                    engine.changeQuantity(i, RESTOCK_QUANTITY);
+                }
+            }
+
+            List<Map<String, Integer>> workload = replayFile != null ? readWorkload(workDirectory) : null;
+            if (workload != null && workload.isEmpty()) {
+                System.err.println("No orders to replay in " + replayFile);
+                return;
+            }
+
+            ExecutorService executor = newCustomerExecutor();
+            CountDownLatch start = new CountDownLatch(1);
+            CountDownLatch done = new CountDownLatch(customers);
+            for (int c = 0; c < customers; c++) {
+                int customer = c;
+                executor.execute(() -> {
+                    try {
+                        start.await();  // Every customer starts at the same moment
+                        for (int n = 0; n < ordersPerCustomer; n++) {
+                            Map<String, Integer> order = workload != null
+                                    ? workload.get((int) (((long) customer * ordersPerCustomer + n) % workload.size()))
+                                    : null;
+                            placeOrder(engine, order);
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        done.countDown();
+                    }
+                });
+            }
+
+            long startNanos = System.nanoTime();
+            start.countDown();
+            done.await();
+            long elapsedNanos = System.nanoTime() - startNanos;
+            executor.shutdown();
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+            engine.getOrderLog().close();
+
+            printReport(elapsedNanos);
+        } finally {
+            deleteDirectory(workDirectory);
+        }
+    }
+
+    // Runs one customer visit: browse, fill a cart and check out
+    private void placeOrder(VendingEngine engine, Map<String, Integer> order) throws InterruptedException {
+        long orderStart = System.nanoTime();
+
+        // Browse the way the customer table does: every drink with the stock that can still be bought
+        List<Drink> drinks = engine.getDrinks();
+        Map<String, Drink> byName = order != null ? new HashMap<>() : null;
+        long visibleStock = 0;
+        for (Drink drink : drinks) {
+            visibleStock += drink.getAvailableQuantity();
+            if (byName != null) {
+                byName.putIfAbsent(drink.getName(), drink);
+            }
+        }
+        browseLatency.record(System.nanoTime() - orderStart);
+        if (visibleStock < 0) {
+            throw new IllegalStateException("Negative stock");  // Keeps the browse loop from being optimized away
+        }
+
+        if (thinkMillis > 0) {
+            Thread.sleep(thinkMillis);
+        }
+
+        Map<Drink, Integer> lines = new LinkedHashMap<>();
+        if (order != null) {
+            for (Map.Entry<String, Integer> line : order.entrySet()) {
+                Drink drink = byName.get(line.getKey());
+                if (drink != null) {
+                    lines.merge(drink, line.getValue(), Integer::sum);
+                }
+            }
+        } else {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            int lineCount = 1 + random.nextInt(Math.min(3, drinks.size()));
+            for (int i = 0; i < lineCount; i++) {
+                lines.merge(drinks.get(random.nextInt(drinks.size())), 1 + random.nextInt(2), Integer::sum);
+            }
+        }
+        if (lines.isEmpty()) {
+            skippedOrders.incrementAndGet();  // None of the replayed drinks exist in the catalog
+            return;
+        }
+
+        // Every line is held as it is added, as on the customer screen, so the checkout time includes the holds
+        long checkoutStart = System.nanoTime();
+        VendingEngine.Cart cart = engine.newCart();
+        try {
+            for (Map.Entry<Drink, Integer> line : lines.entrySet()) {
+                if (engine.addToCart(cart, line.getKey(), line.getValue()) != null) {
+                    engine.cancel(cart);  // Releasing the lines held so far
+                    soldOutOrders.incrementAndGet();
+                    return;
+                }
+            }
+            engine.commit(cart);
+            long end = System.nanoTime();
+            checkoutLatency.record(end - checkoutStart);
+            orderLatency.record(end - orderStart - TimeUnit.MILLISECONDS.toNanos(thinkMillis));
+            completedOrders.incrementAndGet();
+        } catch (IOException e) {
+            failedOrders.incrementAndGet();
+            e.printStackTrace();
+        }
+    }
+
+    // Reads the replayed order log into drink name to quantity maps, one per order
+    private List<Map<String, Integer>> readWorkload(File workDirectory) throws IOException {
+        OrderLog replayLog = new OrderLog(replayFile, new File(workDirectory, "replay.idx"));
+        List<Map<String, Integer>> workload = new ArrayList<>();
+        try {
+            for (String order : replayLog.readRange(0, replayLog.size())) {
+                Map<String, Integer> lines = new LinkedHashMap<>();
+                for (String line : order.split("\\R")) {
+                    if (line.contains(" x ")) {  // Same order line format the sales report reads
+                        try {
+                            String[] parts = line.split(" x ");
+                            int quantity = Integer.parseInt(parts[1].split(" = ")[0].trim());
+                            lines.merge(parts[0].trim(), quantity, Integer::sum);
+                        } catch (RuntimeException e) {
+                            // Skip lines that do not follow the order summary format
+                        }
+                    }
+                }
+                if (!lines.isEmpty()) {
+                    workload.add(lines);
+                }
+            }
+        } finally {
+            replayLog.close();
+        }
+        return workload;
+    }
+
+    // Prints throughput and latency percentiles
+    private void printReport(long elapsedNanos) {
+        double seconds = elapsedNanos / 1e9;
+        System.out.printf("Customers: %d, orders per customer: %d, workload: %s%n", customers, ordersPerCustomer,
+                          replayFile != null ? "replay of " + replayFile : "random carts");
+        System.out.printf("Completed: %d, sold out: %d, not in catalog: %d, failed: %d in %.2fs%n", completedOrders.get(),
+                          soldOutOrders.get(), skippedOrders.get(), failedOrders.get(), seconds);
+        System.out.printf("Throughput: %.1f orders/s%n", completedOrders.get() / seconds);
+        System.out.println("Browse:   " + browseLatency.summary());
+        System.out.println("Checkout: " + checkoutLatency.summary());
+        System.out.println("Order:    " + orderLatency.summary());
+    }
+
+    // Returns an executor running one virtual thread per task, or a bounded thread pool before Java 21
+    private ExecutorService newCustomerExecutor() {
+        try {
+            // Looked up reflectively so the application still builds and runs on Java 8
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            System.out.println("Running customers on virtual threads");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            int threads = Math.min(customers, FALLBACK_THREADS);
+            System.out.println("Virtual threads not available, running customers on " + threads + " platform threads");
+            return Executors.newFixedThreadPool(threads);
+        }
+    }
+
+    // Copies one data file into the work directory if the source has it
+    private void copyIfExists(String fileName, File workDirectory) throws IOException {
+        File source = new File(dataDirectory, fileName);
+        if (source.isFile()) {
+            Files.copy(source.toPath(), new File(workDirectory, fileName).toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    // Deletes the work directory and the files the run wrote into it
+    private static void deleteDirectory(File directory) {
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                if (!file.delete()) {
+                    file.deleteOnExit();
+                }
+            }
+        }
+        if (!directory.delete()) {
+            directory.deleteOnExit();
+        }
+    }
+}
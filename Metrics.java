@@ -0,0 +1,237 @@
+// Importing necessary packages for JMX
+import java.lang.management.ManagementFactory;
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.JMException;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanOperationInfo;
+import javax.management.MBeanParameterInfo;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.ReflectionException;
+
+// Importing necessary packages for collections and lock-free counters
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+// Registry of the application's counters, gauges and latency histograms, published over JMX.
+// Each metric is registered with the platform MBean server as vending:type=<kind>,name=<name>, so
+// jconsole, VisualVM or Mission Control can chart it on a running machine. Counters are LongAdders
+// and timers are LatencyHistograms, so recording costs a few uncontended atomic adds. Instrumented
+// classes look their metrics up once and keep them in static fields. Publishing can be switched off
+// with the system property vending.metrics.jmx=false; the metrics are still collected.
+class Metrics {
+
+    // JMX domain of every metric
+    static final String DOMAIN = "vending";
+
+    // Registry shared by the whole application
+    private static Metrics shared;
+
+    private final MBeanServer server;  // Where metrics are published, or null to keep them local
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+    private final Map<String, LatencyHistogram> timers = new ConcurrentHashMap<>();
+
+    // Creates a registry publishing to the given MBean server, or to none if it is null
+    Metrics(MBeanServer server) {
+        this.server = server;
+    }
+
+    // Returns the registry shared by the whole application
+    static synchronized Metrics getDefault() {
+        if (shared == null) {
+            boolean jmx = Boolean.parseBoolean(System.getProperty("vending.metrics.jmx", "true"));
+            shared = new Metrics(jmx ? ManagementFactory.getPlatformMBeanServer() : null);
+        }
+        return shared;
+    }
+
+    // Returns the counter with the given name, creating it on first use
+    Counter counter(String name) {
+        return counters.computeIfAbsent(name, key -> {
+            Counter counter = new Counter();
+            MetricBean bean = new MetricBean("Number of " + key + " events");
+            bean.attribute("Count", "Events counted", counter::getCount);
+            bean.resetWith(counter::reset);
+            publish("Counter", key, bean);
+            return counter;
+        });
+    }
+
+    // Returns the latency histogram with the given name, creating it on first use.
+    // Latencies are recorded in nanoseconds and published in milliseconds.
+    LatencyHistogram timer(String name) {
+        return timers.computeIfAbsent(name, key -> {
+            LatencyHistogram histogram = new LatencyHistogram();
+            MetricBean bean = new MetricBean("Latency of " + key);
+            bean.attribute("Count", "Latencies recorded", histogram::getCount);
+            bean.attribute("MeanMillis", "Mean latency", () -> histogram.getMean() / 1e6);
+            bean.attribute("P50Millis", "Median latency", () -> histogram.getPercentile(0.50) / 1e6);
+            bean.attribute("P90Millis", "90th percentile latency", () -> histogram.getPercentile(0.90) / 1e6);
+            bean.attribute("P99Millis", "99th percentile latency", () -> histogram.getPercentile(0.99) / 1e6);
+            bean.attribute("P999Millis", "99.9th percentile latency", () -> histogram.getPercentile(0.999) / 1e6);
+            bean.attribute("MaxMillis", "Largest latency", () -> histogram.getMax() / 1e6);
+            bean.resetWith(histogram::reset);
+            publish("Timer", key, bean);
+            return histogram;
+        });
+    }
+
+    // Publishes a gauge read on demand, replacing any earlier gauge of the same name
+    void gauge(String name, Supplier<? extends Number> value) {
+        MetricBean bean = new MetricBean("Current " + name);
+        bean.attribute("Value", "Current value", value::get);
+        publish("Gauge", name, bean);
+    }
+
+    // Publishes a group of gauges read on demand, one attribute per key of the returned map, for
+    // values whose set changes over time such as the stock level of every drink
+    void gauges(String name, Supplier<Map<String, ? extends Number>> values) {
+        MetricBean bean = new MetricBean("Current " + name + " values");
+        bean.attributeGroup(values);
+        publish("Gauge", name, bean);
+    }
+
+    // Registers a metric with the MBean server, replacing one of the same name
+    private void publish(String type, String name, MetricBean bean) {
+        if (server == null) {
+            return;
+        }
+        try {
+            ObjectName objectName = new ObjectName(DOMAIN + ":type=" + type + ",name=" + name);
+            if (server.isRegistered(objectName)) {
+                server.unregisterMBean(objectName);
+            }
+            server.registerMBean(bean, objectName);
+        } catch (JMException e) {
+            e.printStackTrace();  // The metric is still collected, just not visible over JMX
+        }
+    }
+
+    // Number of times something happened
+    static final class Counter {
+        private final LongAdder count = new LongAdder();
+
+        void increment() {
+            count.increment();
+        }
+
+        void add(long amount) {
+            count.add(amount);
+        }
+
+        long getCount() {
+            return count.sum();
+        }
+
+        void reset() {
+            count.reset();
+        }
+    }
+
+    // Read-only MBean whose attributes are read from suppliers each time they are asked for
+    private static final class MetricBean implements DynamicMBean {
+        private final String description;
+        private final Map<String, Supplier<?>> attributes = new LinkedHashMap<>();
+        private final Map<String, String> descriptions = new LinkedHashMap<>();
+        private Supplier<Map<String, ? extends Number>> group;  // Attributes that come and go, or null
+        private Runnable reset;                                 // Behind the reset operation, or null
+
+        MetricBean(String description) {
+            this.description = description;
+        }
+
+        void attribute(String name, String attributeDescription, Supplier<?> value) {
+            attributes.put(name, value);
+            descriptions.put(name, attributeDescription);
+        }
+
+        void attributeGroup(Supplier<Map<String, ? extends Number>> values) {
+            group = values;
+        }
+
+        void resetWith(Runnable action) {
+            reset = action;
+        }
+
+        // Returns the attributes of the group as they are right now
+        private Map<String, ? extends Number> groupValues() {
+            return group != null ? group.get() : Collections.<String, Number>emptyMap();
+        }
+
+        @Override
+        public Object getAttribute(String name) throws AttributeNotFoundException {
+            Supplier<?> value = attributes.get(name);
+            if (value != null) {
+                return value.get();
+            }
+            Number groupValue = groupValues().get(name);
+            if (groupValue == null) {
+                throw new AttributeNotFoundException(name);
+            }
+            return groupValue;
+        }
+
+        @Override
+        public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+            throw new AttributeNotFoundException(attribute.getName() + " is read-only");
+        }
+
+        @Override
+        public AttributeList getAttributes(String[] names) {
+            AttributeList list = new AttributeList();
+            for (String name : names) {
+                try {
+                    list.add(new Attribute(name, getAttribute(name)));
+                } catch (AttributeNotFoundException e) {
+                    // Unknown attributes are left out of the list, as the interface allows
+                }
+            }
+            return list;
+        }
+
+        @Override
+        public AttributeList setAttributes(AttributeList list) {
+            return new AttributeList();  // Nothing is writable
+        }
+
+        @Override
+        public Object invoke(String operation, Object[] params, String[] signature) throws ReflectionException {
+            if ("reset".equals(operation) && reset != null) {
+                reset.run();
+                return null;
+            }
+            throw new ReflectionException(new NoSuchMethodException(operation));
+        }
+
+        @Override
+        public MBeanInfo getMBeanInfo() {
+            List<MBeanAttributeInfo> attributeInfos = new ArrayList<>();
+            for (Map.Entry<String, Supplier<?>> entry : attributes.entrySet()) {
+                Object value = entry.getValue().get();
+                String type = value != null ? value.getClass().getName() : Object.class.getName();
+                attributeInfos.add(new MBeanAttributeInfo(entry.getKey(), type, descriptions.get(entry.getKey()),
+                                                          true, false, false));
+            }
+            for (Map.Entry<String, ? extends Number> entry : groupValues().entrySet()) {
+                attributeInfos.add(new MBeanAttributeInfo(entry.getKey(), entry.getValue().getClass().getName(),
+                                                          entry.getKey(), true, false, false));
+            }
+            MBeanOperationInfo[] operations = reset == null ? new MBeanOperationInfo[0] : new MBeanOperationInfo[] {
+                new MBeanOperationInfo("reset", "Forgets everything recorded so far", new MBeanParameterInfo[0],
+                                       "void", MBeanOperationInfo.ACTION)
+            };
+            return new MBeanInfo(getClass().getName(), description,
+                                 attributeInfos.toArray(new MBeanAttributeInfo[0]), null, operations, null);
+        }
+    }
+}
@@ -0,0 +1,297 @@
+// Importing necessary packages for GUI components and event handling
+import javax.swing.BorderFactory;
+import javax.swing.JButton;
+import javax.swing.JFrame;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JSplitPane;
+import javax.swing.JTable;
+import javax.swing.JTextArea;
+import javax.swing.JTextField;
+import javax.swing.ListSelectionModel;
+import javax.swing.SwingWorker;
+import java.awt.BorderLayout;
+import java.awt.FlowLayout;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+
+// Importing necessary packages for file operations
+import java.io.IOException;
+
+// Importing necessary packages for list and array operations
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+
+// Window listing the order history in a table that only loads the orders on screen.
+// Orders are shown newest first. Clicking the "#" or "Time" header flips the order, clicking
+// "Total" sorts by order total, and the filter box keeps only orders containing a drink name.
+// Sorting by total and filtering scan the log in the background, keeping just the matching
+// record numbers, and the selected order is shown in full below the table.
+class OrderBrowser extends JFrame {
+
+    // Orders read from disk at a time while filtering or sorting
+    private static final int SCAN_BATCH = 1000;
+
+    private final OrderLog orderLog;             // Source of the orders
+    private final OrderTableModel tableModel;    // Lazily loaded rows
+    private final JTable ordersTable;            // Table showing the orders
+    private final JTextField filterField;        // Drink name to filter by
+    private final JLabel statusLabel;            // Number of orders shown
+    private final JTextArea orderText;           // Full text of the selected order
+
+    private String filter;                       // Lower-case drink name filter, or null
+    private boolean sortByTotal;                 // Whether the rows are sorted by order total
+    private SwingWorker<int[], Void> scan;       // Running filter or sort scan, if any
+
+    // Creates a browser over the given order log
+    OrderBrowser(OrderLog orderLog) {
+        this.orderLog = orderLog;
+        setTitle("Orders");
+        setSize(700, 500);
+        setLocationRelativeTo(null);
+        setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
+
+        // Table of orders; the model loads the visible pages on demand
+        tableModel = new OrderTableModel(orderLog);
+        ordersTable = new JTable(tableModel);
+        ordersTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        ordersTable.getColumnModel().getColumn(OrderTableModel.NUMBER_COLUMN).setPreferredWidth(60);
+        ordersTable.getColumnModel().getColumn(OrderTableModel.TIME_COLUMN).setPreferredWidth(130);
+        ordersTable.getColumnModel().getColumn(OrderTableModel.ITEMS_COLUMN).setPreferredWidth(400);
+        ordersTable.getColumnModel().getColumn(OrderTableModel.TOTAL_COLUMN).setPreferredWidth(80);
+        ordersTable.getTableHeader().addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                int column = ordersTable.convertColumnIndexToModel(ordersTable.columnAtPoint(e.getPoint()));
+                sortBy(column);
+            }
+        });
+        ordersTable.getSelectionModel().addListSelectionListener(e -> {
+            if (!e.getValueIsAdjusting()) {
+                showSelectedOrder();
+            }
+        });
+
+        // Full text of the selected order
+        orderText = new JTextArea(6, 40);
+        orderText.setEditable(false);
+
+        JSplitPane splitPane = new JSplitPane(JSplitPane.VERTICAL_SPLIT, new JScrollPane(ordersTable),
+                                              new JScrollPane(orderText));
+        splitPane.setResizeWeight(0.75);
+
+        // Filter and refresh controls
+        filterField = new JTextField(15);
+        filterField.addActionListener(e -> applyFilter());
+        JButton filterButton = new JButton("Filter");
+        filterButton.addActionListener(e -> applyFilter());
+        JButton refreshButton = new JButton("Refresh");
+        refreshButton.addActionListener(e -> refresh());
+        statusLabel = new JLabel();
+
+        JPanel controlsPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        controlsPanel.add(new JLabel("Drink:"));
+        controlsPanel.add(filterField);
+        controlsPanel.add(filterButton);
+        controlsPanel.add(refreshButton);
+        controlsPanel.add(statusLabel);
+        controlsPanel.setBorder(BorderFactory.createEmptyBorder(2, 2, 2, 2));
+
+        add(controlsPanel, BorderLayout.NORTH);
+        add(splitPane, BorderLayout.CENTER);
+
+        refresh();
+    }
+
+    @Override
+    public void dispose() {
+        if (scan != null) {
+            scan.cancel(true);
+        }
+        tableModel.dispose();
+        super.dispose();
+    }
+
+    // Picks up orders placed since the browser opened
+    private void refresh() {
+        statusLabel.setText("Counting orders...");
+        tableModel.refresh(() -> {
+            if (filter != null || sortByTotal) {
+                startScan();
+            } else {
+                updateStatus();
+            }
+        });
+    }
+
+    // Filters the orders by the drink name typed in the filter box
+    private void applyFilter() {
+        String text = filterField.getText().trim();
+        filter = text.isEmpty() ? null : text.toLowerCase(Locale.ROOT);
+        startScan();
+    }
+
+    // Sorts by the clicked column; clicking the current sort column flips the direction
+    private void sortBy(int column) {
+        if (column == OrderTableModel.ITEMS_COLUMN) {
+            return;  // Items are not sortable
+        }
+        boolean byTotal = column == OrderTableModel.TOTAL_COLUMN;
+        if (byTotal == sortByTotal) {
+            tableModel.setDescending(!tableModel.isDescending());
+            return;
+        }
+        sortByTotal = byTotal;
+        tableModel.setDescending(true);  // Newest or largest first
+        startScan();
+    }
+
+    // Recomputes the rows shown for the current filter and sort, in the background
+    private void startScan() {
+        if (scan != null) {
+            scan.cancel(true);
+            scan = null;
+        }
+        if (filter == null && !sortByTotal) {
+            tableModel.setView(null);  // Every order in log order needs no scan
+            updateStatus();
+            return;
+        }
+        int orderCount = tableModel.getOrderCount();
+        String scanFilter = filter;
+        boolean scanByTotal = sortByTotal;
+        statusLabel.setText("Searching " + orderCount + " orders...");
+        SwingWorker<int[], Void> worker = new SwingWorker<int[], Void>() {
+            @Override
+            protected int[] doInBackground() throws IOException {
+                return findRecords(orderLog, orderCount, scanFilter, scanByTotal, this::isCancelled);
+            }
+
+            @Override
+            protected void done() {
+                if (isCancelled() || scan != this) {
+                    return;
+                }
+                scan = null;
+                try {
+                    tableModel.setView(get());
+                } catch (InterruptedException | ExecutionException e) {
+                    e.printStackTrace();
+                    tableModel.setView(null);
+                }
+                updateStatus();
+            }
+        };
+        scan = worker;
+        worker.execute();
+    }
+
+    // Reads the log in batches and returns the matching record numbers, sorted by total if asked.
+    // Only record numbers and totals are kept, never the order text.
+    static int[] findRecords(OrderLog orderLog, int orderCount, String nameFilter, boolean byTotal,
+                             Cancelled cancelled) throws IOException {
+        int[] records = new int[Math.min(orderCount, 1024)];
+        float[] totals = byTotal ? new float[records.length] : null;
+        int found = 0;
+        for (int first = 0; first < orderCount && !cancelled.isCancelled(); first += SCAN_BATCH) {
+            List<String> orders = orderLog.readRange(first, Math.min(SCAN_BATCH, orderCount - first));
+            for (int i = 0; i < orders.size(); i++) {
+                String order = orders.get(i);
+                if (nameFilter != null && !containsDrink(order, nameFilter)) {
+                    continue;
+                }
+                if (found == records.length) {
+                    records = Arrays.copyOf(records, found * 2);
+                    if (totals != null) {
+                        totals = Arrays.copyOf(totals, found * 2);
+                    }
+                }
+                records[found] = first + i;
+                if (totals != null) {
+                    totals[found] = totalOf(order);
+                }
+                found++;
+            }
+        }
+        if (!byTotal) {
+            return Arrays.copyOf(records, found);  // Already in record order
+        }
+        // Sort by total without boxing: non-negative float bits order like the floats themselves
+        long[] keys = new long[found];
+        for (int i = 0; i < found; i++) {
+            keys[i] = ((long) Float.floatToIntBits(Math.max(0, totals[i])) << 32) | records[i];
+        }
+        Arrays.sort(keys);
+        int[] sorted = new int[found];
+        for (int i = 0; i < found; i++) {
+            sorted[i] = (int) keys[i];
+        }
+        return sorted;
+    }
+
+    // Tells whether any item line of an order names a drink containing the filter text
+    private static boolean containsDrink(String order, String nameFilter) {
+        for (String line : order.split("\\R")) {
+            int times = line.lastIndexOf(" x ");
+            if (times > 0 && line.substring(0, times).toLowerCase(Locale.ROOT).contains(nameFilter)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Returns the total of an order, or 0 if it has none
+    private static float totalOf(String order) {
+        int start = order.lastIndexOf("Total: ");
+        if (start < 0) {
+            return 0;
+        }
+        int end = order.indexOf('\n', start);
+        try {
+            return Float.parseFloat(order.substring(start + 7, end < 0 ? order.length() : end).trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    // Shows the full text of the selected order below the table
+    private void showSelectedOrder() {
+        int row = ordersTable.getSelectedRow();
+        if (row < 0) {
+            orderText.setText("");
+            return;
+        }
+        int record = tableModel.getRecord(ordersTable.convertRowIndexToModel(row));
+        new SwingWorker<String, Void>() {
+            @Override
+            protected String doInBackground() throws IOException {
+                return orderLog.read(record);
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    orderText.setText("#" + (record + 1) + "\n" + get());
+                    orderText.setCaretPosition(0);
+                } catch (InterruptedException | ExecutionException e) {
+                    e.printStackTrace();
+                }
+            }
+        }.execute();
+    }
+
+    // Shows how many orders the table holds
+    private void updateStatus() {
+        int shown = tableModel.getRowCount();
+        int total = tableModel.getOrderCount();
+        statusLabel.setText(shown == total ? total + " orders" : shown + " of " + total + " orders");
+    }
+
+    // Lets the scan stop early when it is replaced
+    interface Cancelled {
+        boolean isCancelled();
+    }
+}
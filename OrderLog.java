@@ -0,0 +1,527 @@
+// Importing necessary packages for file operations
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+
+// Importing necessary packages for list data structures
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+// Record-oriented view of orders.txt with a side index of record offsets in orders.idx.
+// Each index entry holds the byte offset where an "Order Summary:" record starts and the time it
+// was written, so any order can be located with one index lookup and read by mapping just that
+// record, whatever the size of the history. All appends to one pair of files must go through a
+// single instance, which VendingEngine owns.
+//
+// Appends are group-committed: a background writer collects the orders that arrive while it is
+// busy, or within the flush interval, and stores them with one write and one fsync per file. In
+// durable mode (the default) append returns once its batch is on disk; otherwise it returns as
+// soon as the order is queued. The batching is configured with the system properties
+// vending.orders.batchSize, vending.orders.flushMillis and vending.orders.durable.
+class OrderLog {
+
+    // Default file names used by the application
+    static final String ORDERS_FILE = "orders.txt";
+    static final String INDEX_FILE = "orders.idx";
+
+    // Every record in orders.txt starts with this line
+    static final String RECORD_MARKER = "Order Summary:";
+
+    // Each index entry is a long offset followed by a long timestamp (0 when unknown)
+    private static final int ENTRY_SIZE = 16;
+
+    // Size of the windows orders.txt is mapped in while looking for unindexed records
+    private static final int SCAN_WINDOW = 64 * 1024 * 1024;
+
+    private static final byte[] MARKER_BYTES = RECORD_MARKER.getBytes(StandardCharsets.UTF_8);
+
+    // Write metrics: time from queueing an order until it is on disk, and time per batch write
+    private static final LatencyHistogram SAVE_TIME = Metrics.getDefault().timer("orderSave");
+    private static final LatencyHistogram BATCH_WRITE_TIME = Metrics.getDefault().timer("orderBatchWrite");
+    private static final Metrics.Counter ORDERS_WRITTEN = Metrics.getDefault().counter("ordersWritten");
+
+    // Default batching settings, used unless the system properties override them
+    static final int DEFAULT_BATCH_SIZE = 256;
+    static final long DEFAULT_FLUSH_MILLIS = 2;
+
+    private final File ordersFile;  // Human-readable order records
+    private final File indexFile;   // Fixed-size entries pointing into ordersFile
+
+    private FileChannel ordersChannel;
+    private FileChannel indexChannel;
+    private final ByteBuffer entryBuffer = ByteBuffer.allocate(ENTRY_SIZE);  // Reused for index reads and writes
+    private int recordCount = -1;  // Number of records including queued ones, -1 until the index is opened
+
+    private final int batchSize;      // Most orders stored by one write
+    private final long flushNanos;    // Longest an order waits for others to share its write
+    private final boolean durable;    // Whether append waits until the order is on disk
+
+    private final List<PendingOrder> pending = new ArrayList<>();  // Orders queued for the writer
+    private long endOffset;           // Size orders.txt will have once the queued orders are written
+    private int flushedCount;         // Number of records already written to both files
+    private Thread writerThread;      // Background writer, started when the log is opened
+
+    // Creates an order log over the given orders and index files, batching as the system properties say
+    OrderLog(File ordersFile, File indexFile) {
+        this(ordersFile, indexFile, Integer.getInteger("vending.orders.batchSize", DEFAULT_BATCH_SIZE),
+             Long.getLong("vending.orders.flushMillis", DEFAULT_FLUSH_MILLIS),
+             Boolean.parseBoolean(System.getProperty("vending.orders.durable", "true")));
+    }
+
+    // Creates an order log over the given orders and index files with explicit batching settings
+    OrderLog(File ordersFile, File indexFile, int batchSize, long flushMillis, boolean durable) {
+        this.ordersFile = ordersFile;
+        this.indexFile = indexFile;
+        this.batchSize = Math.max(1, batchSize);
+        this.flushNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, flushMillis));
+        this.durable = durable;
+    }
+
+    // Appends an order summary as a new record and returns its record number.
+    // In durable mode this waits until the record is on disk.
+    int append(String orderSummary) throws IOException {
+        return append(orderSummary, System.currentTimeMillis());
+    }
+
+    // Appends an order summary placed at the given time and returns its record number
+    int append(String orderSummary, long timestamp) throws IOException {
+        PendingOrder order = enqueue(orderSummary, timestamp);
+        if (!durable) {
+            return order.number;  // Queued; the writer stores it with the next batch
+        }
+        CompletableFuture<Integer> written = order.written;
+        try {
+            return written.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the order to be written");
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e.getCause());
+        }
+    }
+
+    // Queues an order summary as a new record. The future completes with its record number once the
+    // record has been written and synced to disk, or exceptionally if writing failed.
+    CompletableFuture<Integer> appendAsync(String orderSummary) throws IOException {
+        return enqueue(orderSummary, System.currentTimeMillis()).written;
+    }
+
+    // Assigns the next record number and offset to an order and hands it to the writer
+    private synchronized PendingOrder enqueue(String orderSummary, long timestamp) throws IOException {
+        open();
+        String record = orderSummary + System.lineSeparator() + System.lineSeparator();
+        PendingOrder order = new PendingOrder(recordCount++, endOffset, timestamp,
+                                              record.getBytes(StandardCharsets.UTF_8));
+        endOffset += order.bytes.length;
+        pending.add(order);
+        notifyAll();  // Wake the writer
+        return order;
+    }
+
+    // Writes every queued order to disk and returns once they are synced
+    synchronized void flush() throws IOException {
+        if (recordCount > 0) {
+            awaitFlushed(recordCount - 1);
+        }
+    }
+
+    // Returns the number of orders in the log
+    synchronized int size() throws IOException {
+        open();
+        return recordCount;
+    }
+
+    // Returns the text of order number n (0-based)
+    synchronized String read(int n) throws IOException {
+        open();
+        if (n < 0 || n >= recordCount) {
+            throw new IndexOutOfBoundsException("Order " + n + " of " + recordCount);
+        }
+        long end = endOf(n);  // Waits for the record to be written before its index entry is read
+        long start = offsetOf(n);
+        return decode(start, end).trim();
+    }
+
+    // Returns the time order number n was written, or 0 if it was indexed from an existing log
+    synchronized long timestamp(int n) throws IOException {
+        open();
+        if (n < 0 || n >= recordCount) {
+            throw new IndexOutOfBoundsException("Order " + n + " of " + recordCount);
+        }
+        awaitFlushed(n);
+        return readEntry(n).getLong(8);
+    }
+
+    // Returns the times of up to count orders starting at record number from, read with one index access
+    synchronized long[] readTimestamps(int from, int count) throws IOException {
+        open();
+        int start = Math.max(0, from);
+        int end = Math.min(recordCount, from + count);
+        if (start >= end) {
+            return new long[0];
+        }
+        awaitFlushed(end - 1);
+        ByteBuffer entries = readEntries(start, end);
+        long[] timestamps = new long[end - start];
+        for (int i = 0; i < timestamps.length; i++) {
+            timestamps[i] = entries.getLong(i * ENTRY_SIZE + 8);
+        }
+        return timestamps;
+    }
+
+    // Returns up to count orders starting at record number from.
+    // The whole range is mapped once and cut into records with offsets read in one index access.
+    synchronized List<String> readRange(int from, int count) throws IOException {
+        open();
+        int start = Math.max(0, from);
+        int end = Math.min(recordCount, from + count);
+        List<String> orders = new ArrayList<>(Math.max(0, end - start));
+        if (start >= end) {
+            return orders;
+        }
+        long rangeEnd = endOf(end - 1);
+        ByteBuffer entries = readEntries(start, end);
+        long rangeStart = entries.getLong(0);
+        ByteBuffer records = map(rangeStart, rangeEnd);
+        for (int i = 0; i < end - start; i++) {
+            int recordStart = (int) (entries.getLong(i * ENTRY_SIZE) - rangeStart);
+            int recordEnd = i + 1 < end - start ? (int) (entries.getLong((i + 1) * ENTRY_SIZE) - rangeStart)
+                                                : records.capacity();
+            ByteBuffer record = records.duplicate();
+            record.limit(recordEnd).position(recordStart);
+            orders.add(StandardCharsets.UTF_8.decode(record).toString().trim());
+        }
+        return orders;
+    }
+
+    // Maps the bytes of records from (inclusive) to to (exclusive) for reading.
+    // The mapping stays valid after the log is closed; its records start with RECORD_MARKER lines.
+    synchronized ByteBuffer mapRecords(int from, int to) throws IOException {
+        open();
+        if (from < 0 || to > recordCount || from > to) {
+            throw new IndexOutOfBoundsException("Orders " + from + " to " + to + " of " + recordCount);
+        }
+        if (from == to) {
+            return ByteBuffer.allocate(0);
+        }
+        long end = endOf(to - 1);
+        return map(offsetOf(from), end);
+    }
+
+    // Returns the last count orders, oldest first
+    synchronized List<String> readLast(int count) throws IOException {
+        open();
+        return readRange(Math.max(0, recordCount - count), count);
+    }
+
+    // Writes the queued orders, stops the writer and releases the file handles held by the log
+    synchronized void close() {
+        try {
+            flush();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        writerThread = null;  // Tells the writer to stop
+        notifyAll();
+        closeChannels();
+    }
+
+    // Releases the file handles and forgets the in-memory state, so the next call reopens the files
+    private void closeChannels() {
+        try {
+            if (ordersChannel != null) {
+                ordersChannel.close();
+            }
+            if (indexChannel != null) {
+                indexChannel.close();
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        ordersChannel = null;
+        indexChannel = null;
+        recordCount = -1;
+    }
+
+    // Opens the files and brings the index up to date with the end of orders.txt
+    private void open() throws IOException {
+        if (recordCount >= 0) {
+            return;
+        }
+        ordersChannel = FileChannel.open(ordersFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        indexChannel = FileChannel.open(indexFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        // Ignore a torn entry left behind by a crash in the middle of an index write
+        recordCount = (int) (indexChannel.size() / ENTRY_SIZE);
+        long ordersSize = ordersChannel.size();
+        long scanFrom = 0;
+        if (recordCount > 0) {
+            long lastOffset = offsetOf(recordCount - 1);
+            if (lastOffset >= ordersSize) {
+                recordCount = 0;  // orders.txt was replaced or truncated, so the index is stale
+            } else {
+                scanFrom = lastOffset + 1;
+            }
+        }
+        indexChannel.truncate((long) recordCount * ENTRY_SIZE);
+
+        // Index any records appended since the index was last written
+        for (long offset : findRecords(scanFrom, ordersSize)) {
+            writeEntry(recordCount++, offset, 0);
+        }
+        flushedCount = recordCount;
+        endOffset = ordersSize;
+
+        writerThread = new Thread(this::runWriter, "order-log-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    // Waits until record n has been written, failing if the writer hit an error first
+    private void awaitFlushed(int n) throws IOException {
+        boolean interrupted = false;
+        while (recordCount >= 0 && n >= flushedCount) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                interrupted = true;  // Finish waiting; a half-read log is of no use to the caller
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        if (recordCount < 0) {
+            throw new IOException("Order " + n + " could not be written");
+        }
+    }
+
+    // Body of the writer thread: takes batches of queued orders and stores them
+    private void runWriter() {
+        Thread self = Thread.currentThread();
+        while (true) {
+            List<PendingOrder> batch;
+            FileChannel orders;
+            FileChannel index;
+            synchronized (this) {
+                // Wait for the first order, then give others up to the flush interval to join it
+                while (pending.isEmpty() && writerThread == self) {
+                    waitQuietly(0);
+                }
+                if (writerThread != self) {
+                    return;  // The log was closed and everything queued is written
+                }
+                long deadline = pending.get(0).queuedNanos + flushNanos;
+                long remaining;
+                while (pending.size() < batchSize && (remaining = deadline - System.nanoTime()) > 0) {
+                    waitQuietly(remaining);
+                }
+                int size = Math.min(batchSize, pending.size());
+                batch = new ArrayList<>(pending.subList(0, size));
+                pending.subList(0, size).clear();
+                orders = ordersChannel;
+                index = indexChannel;
+            }
+
+            IOException failure = null;
+            long writeStart = System.nanoTime();
+            try {
+                writeBatch(batch, orders, index);
+            } catch (IOException e) {
+                failure = e;
+            }
+            long written = System.nanoTime();
+            BATCH_WRITE_TIME.record(written - writeStart);
+
+            List<PendingOrder> failed = batch;
+            synchronized (this) {
+                if (failure == null) {
+                    flushedCount = batch.get(batch.size() - 1).number + 1;
+                } else {
+                    // The files no longer match the record numbers handed out, so fail everything
+                    // queued and let the next append re-read the log from disk
+                    failed = new ArrayList<>(batch);
+                    failed.addAll(pending);
+                    pending.clear();
+                    writerThread = null;
+                    closeChannels();
+                }
+                notifyAll();
+            }
+
+            if (failure == null) {
+                for (PendingOrder order : batch) {
+                    SAVE_TIME.record(written - order.queuedNanos);
+                    order.written.complete(order.number);
+                }
+                ORDERS_WRITTEN.add(batch.size());
+            } else {
+                failure.printStackTrace();
+                for (PendingOrder order : failed) {
+                    order.written.completeExceptionally(failure);
+                }
+                return;
+            }
+        }
+    }
+
+    // Stores a batch of consecutive orders with one write and one sync per file
+    private static void writeBatch(List<PendingOrder> batch, FileChannel orders, FileChannel index) throws IOException {
+        int recordBytes = 0;
+        for (PendingOrder order : batch) {
+            recordBytes += order.bytes.length;
+        }
+        ByteBuffer records = ByteBuffer.allocate(recordBytes);
+        ByteBuffer entries = ByteBuffer.allocate(batch.size() * ENTRY_SIZE);
+        for (PendingOrder order : batch) {
+            records.put(order.bytes);
+            entries.putLong(order.offset).putLong(order.timestamp);
+        }
+        records.flip();
+        entries.flip();
+
+        // Records go before their index entries; a crash in between leaves records that open() indexes again
+        PendingOrder first = batch.get(0);
+        writeFully(orders, records, first.offset);
+        writeFully(index, entries, (long) first.number * ENTRY_SIZE);
+        orders.force(false);
+        index.force(false);
+    }
+
+    // Waits on this log's monitor for up to the given time (0 means until notified), ignoring interrupts
+    private void waitQuietly(long nanos) {
+        try {
+            if (nanos > 0) {
+                TimeUnit.NANOSECONDS.timedWait(this, nanos);
+            } else {
+                wait();
+            }
+        } catch (InterruptedException e) {
+            // The writer only stops when the log is closed
+        }
+    }
+
+    // Scans orders.txt between the given offsets for lines that start a record
+    private List<Long> findRecords(long from, long to) throws IOException {
+        List<Long> offsets = new ArrayList<>();
+        long next = from;  // First position not checked yet
+        while (next + MARKER_BYTES.length <= to) {
+            // Map from the byte before the first unchecked position so line starts can be seen
+            long windowStart = Math.max(0, next - 1);
+            int windowLength = (int) Math.min(SCAN_WINDOW, to - windowStart);
+            MappedByteBuffer view = ordersChannel.map(FileChannel.MapMode.READ_ONLY, windowStart, windowLength);
+            int i = (int) (next - windowStart);
+            for (; i + MARKER_BYTES.length <= windowLength; i++) {
+                boolean lineStart = windowStart + i == 0 || view.get(i - 1) == '\n';
+                if (lineStart && matchesMarker(view, i)) {
+                    offsets.add(windowStart + i);
+                }
+            }
+            next = windowStart + i;
+            if (windowStart + windowLength >= to) {
+                break;
+            }
+        }
+        return offsets;
+    }
+
+    // Checks whether the record marker starts at the given position
+    private static boolean matchesMarker(ByteBuffer view, int position) {
+        for (int i = 0; i < MARKER_BYTES.length; i++) {
+            if (view.get(position + i) != MARKER_BYTES[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Reads the record offset of order number n from the index
+    private long offsetOf(int n) throws IOException {
+        return readEntry(n).getLong(0);
+    }
+
+    // Waits until record n and the start of its successor are written and returns where record n ends
+    private long endOf(int n) throws IOException {
+        // More orders may be queued while waiting, which can turn the last record into one that has a successor
+        int last;
+        while ((last = Math.min(n + 1, recordCount - 1)) >= flushedCount) {
+            awaitFlushed(last);
+        }
+        return n + 1 < recordCount ? offsetOf(n + 1) : endOffset;
+    }
+
+    // Maps the bytes between two offsets of orders.txt and decodes them
+    private String decode(long start, long end) throws IOException {
+        return StandardCharsets.UTF_8.decode(map(start, end)).toString();
+    }
+
+    // Maps the bytes between two offsets of orders.txt read-only
+    private MappedByteBuffer map(long start, long end) throws IOException {
+        if (end - start > Integer.MAX_VALUE) {
+            throw new IOException("Order range of " + (end - start) + " bytes is too large to map at once");
+        }
+        return ordersChannel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+    }
+
+    // Reads the index entries of records from (inclusive) to to (exclusive) with one read
+    private ByteBuffer readEntries(int from, int to) throws IOException {
+        ByteBuffer entries = ByteBuffer.allocate((to - from) * ENTRY_SIZE);
+        long position = (long) from * ENTRY_SIZE;
+        while (entries.hasRemaining()) {
+            if (indexChannel.read(entries, position + entries.position()) < 0) {
+                throw new IOException("Truncated order index at entry " + (from + entries.position() / ENTRY_SIZE));
+            }
+        }
+        return entries;
+    }
+
+    // Reads index entry n into the shared entry buffer
+    private ByteBuffer readEntry(int n) throws IOException {
+        entryBuffer.clear();
+        long position = (long) n * ENTRY_SIZE;
+        while (entryBuffer.hasRemaining()) {
+            if (indexChannel.read(entryBuffer, position + entryBuffer.position()) < 0) {
+                throw new IOException("Truncated order index at entry " + n);
+            }
+        }
+        return entryBuffer;
+    }
+
+    // Writes index entry n
+    private void writeEntry(int n, long offset, long timestamp) throws IOException {
+        entryBuffer.clear();
+        entryBuffer.putLong(offset).putLong(timestamp).flip();
+        writeFully(indexChannel, entryBuffer, (long) n * ENTRY_SIZE);
+    }
+
+    // Writes the whole buffer at the given position
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    // An order waiting for the writer
+    private static final class PendingOrder {
+        final int number;        // Record number handed out to the caller
+        final long offset;       // Where the record goes in orders.txt
+        final long timestamp;    // Time the order was placed
+        final byte[] bytes;      // Encoded record
+        final long queuedNanos = System.nanoTime();
+        final CompletableFuture<Integer> written = new CompletableFuture<>();
+
+        PendingOrder(int number, long offset, long timestamp, byte[] bytes) {
+            this.number = number;
+            this.offset = offset;
+            this.timestamp = timestamp;
+            this.bytes = bytes;
+        }
+    }
+}
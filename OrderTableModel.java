@@ -0,0 +1,233 @@
+// Importing necessary packages for the table model and Swing threading
+import javax.swing.SwingUtilities;
+import javax.swing.table.AbstractTableModel;
+
+// Importing necessary packages for file operations and date formatting
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+// Importing necessary packages for collections and background work
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Table model over the order log that only keeps the pages of orders being looked at.
+// Rows are fetched from disk PAGE_SIZE orders at a time on a background thread when the table
+// first asks for them, and at most CACHED_PAGES pages are held, least recently used first out.
+// The rows shown are either every order (newest first by default) or a view: an array of record
+// numbers computed by OrderBrowser for filtering and sorting. The view holds one int per matching
+// order, so memory stays small and flat whatever the size of the history.
+class OrderTableModel extends AbstractTableModel {
+
+    // Column positions
+    static final int NUMBER_COLUMN = 0;
+    static final int TIME_COLUMN = 1;
+    static final int ITEMS_COLUMN = 2;
+    static final int TOTAL_COLUMN = 3;
+
+    private static final String[] COLUMN_NAMES = {"#", "Time", "Items", "Total"};
+
+    // Orders read from disk at a time
+    static final int PAGE_SIZE = 100;
+
+    // Pages kept in memory
+    private static final int CACHED_PAGES = 20;
+
+    private final OrderLog orderLog;
+    private final ExecutorService loader = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "order-page-loader");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Loaded pages by page number, in least recently used order
+    private final LinkedHashMap<Integer, OrderRow[]> pages = new LinkedHashMap<Integer, OrderRow[]>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, OrderRow[]> eldest) {
+            return size() > CACHED_PAGES;
+        }
+    };
+    private final Set<Integer> loadingPages = new HashSet<>();  // Pages requested but not loaded yet
+
+    private int orderCount;      // Orders in the log when the model was last refreshed
+    private int[] view;          // Record numbers shown, or null to show every order
+    private boolean descending = true;  // Whether the rows run from the last record to the first
+
+    // Creates a model over the given order log
+    OrderTableModel(OrderLog orderLog) {
+        this.orderLog = orderLog;
+    }
+
+    // Re-reads the number of orders on the I/O thread, as opening the log scans orders.txt, and runs
+    // onRefreshed on the Swing thread once the rows are updated. Pages already loaded stay valid since
+    // the log is append-only.
+    void refresh(Runnable onRefreshed) {
+        AsyncIo.call(orderLog::size, count -> {
+            if (count < orderCount) {
+                pages.clear();  // The log was replaced
+            }
+            orderCount = count;
+            fireTableDataChanged();
+            onRefreshed.run();
+        }, e -> onRefreshed.run());  // Keep showing the orders counted before
+    }
+
+    // Shows only the given record numbers, in the given order, or every order when null
+    void setView(int[] records) {
+        view = records;
+        fireTableDataChanged();
+    }
+
+    // Returns whether a filtered or sorted view is shown
+    boolean hasView() {
+        return view != null;
+    }
+
+    // Sets whether rows are shown in reverse order
+    void setDescending(boolean descending) {
+        this.descending = descending;
+        fireTableDataChanged();
+    }
+
+    boolean isDescending() {
+        return descending;
+    }
+
+    // Returns the number of orders in the log as of the last refresh
+    int getOrderCount() {
+        return orderCount;
+    }
+
+    // Returns the record number shown in a row
+    int getRecord(int row) {
+        int rows = getRowCount();
+        int position = descending ? rows - 1 - row : row;
+        return view != null ? view[position] : position;
+    }
+
+    // Stops the background loader; called when the browser closes
+    void dispose() {
+        loader.shutdownNow();
+    }
+
+    @Override
+    public int getRowCount() {
+        return view != null ? view.length : orderCount;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMN_NAMES.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMN_NAMES[column];
+    }
+
+    @Override
+    public Class<?> getColumnClass(int column) {
+        switch (column) {
+            case NUMBER_COLUMN:
+                return Integer.class;
+            case TOTAL_COLUMN:
+                return Double.class;
+            default:
+                return String.class;
+        }
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        int record = getRecord(row);
+        if (column == NUMBER_COLUMN) {
+            return record + 1;  // Orders are numbered from 1 for people
+        }
+        OrderRow order = getOrder(record);
+        if (order == null) {
+            return column == ITEMS_COLUMN ? "Loading..." : null;
+        }
+        switch (column) {
+            case TIME_COLUMN:
+                return order.time;
+            case ITEMS_COLUMN:
+                return order.items;
+            default:
+                return order.total;
+        }
+    }
+
+    // Returns a loaded order, or null after scheduling the load of its page
+    private OrderRow getOrder(int record) {
+        int page = record / PAGE_SIZE;
+        OrderRow[] rows = pages.get(page);
+        if (rows != null && record - page * PAGE_SIZE < rows.length) {
+            return rows[record - page * PAGE_SIZE];
+        }
+        if (loadingPages.add(page)) {
+            loader.execute(() -> loadPage(page));
+        }
+        return null;
+    }
+
+    // Reads and summarizes one page of orders on the loader thread, then shows it on the Swing thread
+    private void loadPage(int page) {
+        OrderRow[] rows;
+        try {
+            int first = page * PAGE_SIZE;
+            List<String> orders = orderLog.readRange(first, PAGE_SIZE);
+            long[] timestamps = orderLog.readTimestamps(first, orders.size());
+            SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd HH:mm");
+            rows = new OrderRow[orders.size()];
+            for (int i = 0; i < rows.length; i++) {
+                rows[i] = new OrderRow(orders.get(i), timestamps[i], format);
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            rows = new OrderRow[0];
+        }
+        OrderRow[] loaded = rows;
+        SwingUtilities.invokeLater(() -> {
+            loadingPages.remove(page);
+            pages.put(page, loaded);
+            if (getRowCount() > 0) {
+                fireTableRowsUpdated(0, getRowCount() - 1);  // Repaints the visible rows, wherever the page landed
+            }
+        });
+    }
+
+    // Summary of one order as shown in the table
+    private static final class OrderRow {
+        final String time;   // When the order was placed, empty if unknown
+        final String items;  // "name x quantity" entries joined by commas
+        final Double total;  // Order total, or null if the record has none
+
+        OrderRow(String order, long timestamp, SimpleDateFormat format) {
+            time = timestamp != SalesCube.UNKNOWN_TIME ? format.format(new Date(timestamp)) : "";
+            StringBuilder itemList = new StringBuilder();
+            Double orderTotal = null;
+            for (String line : order.split("\\R")) {
+                if (line.contains(" x ")) {
+                    if (itemList.length() > 0) {
+                        itemList.append(", ");
+                    }
+                    int equals = line.lastIndexOf(" = ");
+                    itemList.append(equals > 0 ? line.substring(0, equals) : line);
+                } else if (line.startsWith("Total: ")) {
+                    try {
+                        orderTotal = Double.parseDouble(line.substring(7).trim());
+                    } catch (NumberFormatException e) {
+                        // Leave the total empty for records that do not follow the format
+                    }
+                }
+            }
+            items = itemList.toString();
+            total = orderTotal;
+        }
+    }
+}
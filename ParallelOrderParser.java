@@ -0,0 +1,120 @@
+// Importing necessary packages for file operations
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+// Importing necessary packages for parallel work
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+// Builds sales aggregates over a large stretch of the order log on all cores.
+// The range of records is split in halves on a ForkJoinPool until each piece holds at most
+// CHUNK_ORDERS records. The index gives the byte offset of every "Order Summary:" record, so
+// chunks always start and end on record boundaries. Each chunk is mapped and decoded in one
+// piece, cut into records at the "Order Summary:" lines and counted into its own SalesCube,
+// and the partial cubes are merged as the tasks join.
+class ParallelOrderParser {
+
+    // Largest number of records parsed by a single task
+    static final int CHUNK_ORDERS = 16384;
+
+    private final OrderLog orderLog;
+    private final ForkJoinPool pool;
+
+    // Creates a parser over the given log that runs on the common ForkJoinPool
+    ParallelOrderParser(OrderLog orderLog) {
+        this(orderLog, ForkJoinPool.commonPool());
+    }
+
+    // Creates a parser over the given log that runs on the given pool
+    ParallelOrderParser(OrderLog orderLog, ForkJoinPool pool) {
+        this.orderLog = orderLog;
+        this.pool = pool;
+    }
+
+    // Parses records from (inclusive) to to (exclusive) and returns their merged aggregates
+    Result parse(int from, int to) throws IOException {
+        try {
+            return pool.invoke(new ChunkTask(from, to));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    // Aggregates of a range of orders
+    static final class Result {
+        final SalesCube cube = new SalesCube();
+        double highestSale;  // Largest order total in the range
+        int orderCount;      // Number of records parsed
+
+        // Adds the aggregates of another range to this one
+        void merge(Result other) {
+            cube.merge(other.cube);
+            highestSale = Math.max(highestSale, other.highestSale);
+            orderCount += other.orderCount;
+        }
+    }
+
+    // Parses a range of records directly when it is small and in two forked halves otherwise
+    private final class ChunkTask extends RecursiveTask<Result> {
+        private final int from;
+        private final int to;
+
+        ChunkTask(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Result compute() {
+            if (to - from <= CHUNK_ORDERS) {
+                try {
+                    return parseChunk(from, to);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            int middle = (from + to) >>> 1;
+            ChunkTask firstHalf = new ChunkTask(from, middle);
+            firstHalf.fork();
+            Result secondHalf = new ChunkTask(middle, to).compute();
+            Result result = firstHalf.join();
+            result.merge(secondHalf);
+            return result;
+        }
+    }
+
+    // Maps, decodes and counts one chunk of records
+    private Result parseChunk(int from, int to) throws IOException {
+        Result result = new Result();
+        if (from >= to) {
+            return result;
+        }
+        ByteBuffer bytes = orderLog.mapRecords(from, to);
+        long[] timestamps = orderLog.readTimestamps(from, to - from);
+        String text = StandardCharsets.UTF_8.decode(bytes).toString();
+
+        int recordStart = nextRecord(text, 0);
+        for (int n = 0; recordStart < text.length(); n++) {
+            int recordEnd = nextRecord(text, recordStart + 1);
+            long timestamp = n < timestamps.length ? timestamps[n] : SalesCube.UNKNOWN_TIME;
+            double totalSale = result.cube.addOrder(text, recordStart, recordEnd, timestamp);
+            if (!Double.isNaN(totalSale)) {
+                result.highestSale = Math.max(result.highestSale, totalSale);
+            }
+            result.orderCount++;
+            recordStart = recordEnd;
+        }
+        return result;
+    }
+
+    // Returns the position of the next line at or after from that starts a record, or the text length
+    private static int nextRecord(String text, int from) {
+        int position = text.indexOf(OrderLog.RECORD_MARKER, from);
+        while (position > 0 && text.charAt(position - 1) != '\n') {
+            position = text.indexOf(OrderLog.RECORD_MARKER, position + 1);
+        }
+        return position < 0 ? text.length() : position;
+    }
+}
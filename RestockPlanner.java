@@ -0,0 +1,237 @@
+// Importing necessary packages for collections
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+// Keeps the drinks ordered by how soon they are expected to run out, from their recent sales rate.
+// Each drink has a sales rate in units per millisecond that decays exponentially with the configured
+// half-life: a sale of q units adds q / tau, where tau = half-life / ln 2. The expected time left is
+// the available stock divided by the current rate. Every rate decays by the same factor, so the time
+// left of every drink grows by the same factor and their order never changes between sales. The
+// drinks sit in a TreeSet ordered by a key that does not depend on the time it is read:
+// ln(available) - ln(rate) - rateTime / tau, which is ln(time left) minus now / tau for every drink.
+// A checkout or a stock change moves only the drinks it touched, in O(log n) each. The staff screen
+// reads the first entries without scanning the catalog or the order history, and works out their
+// stockout times from the current rates. Drinks that are already empty come first, and drinks that
+// never sold come last, fewest in stock first.
+// The half-life is set with the system property vending.restock.halfLifeMinutes (default 60).
+class RestockPlanner {
+
+    // Half-life of the sales rate used unless the system property overrides it
+    static final long DEFAULT_HALF_LIFE_MINUTES = 60;
+
+    // Expected stockout time of drinks that are not selling
+    static final long NEVER = Long.MAX_VALUE;
+
+    private static final long MILLIS_PER_HOUR = 60L * 60 * 1000;
+
+    private final DrinkCatalog catalog;
+    private final double tauMillis;  // Mean lifetime of a sale in the rate, half-life / ln 2
+    private final long epoch;        // Times in the sort keys are counted from here, to keep them small
+    private final Map<Drink, Entry> entries = new IdentityHashMap<>();
+    private final TreeSet<Entry> byStockout = new TreeSet<>(Comparator
+            .comparingDouble((Entry entry) -> entry.urgency)
+            .thenComparingInt(entry -> entry.available)
+            .thenComparingLong(entry -> entry.sequence));
+    private long nextSequence;  // Breaks ties so that different drinks never compare equal
+
+    // Moves the drinks of catalog changes, including restocks and edits made outside this process
+    private final DrinkCatalog.Listener catalogListener = new DrinkCatalog.Listener() {
+        @Override
+        public void drinksChanged(int firstIndex, int lastIndex) {
+            refresh(firstIndex, lastIndex);
+        }
+
+        @Override
+        public void drinksInserted(int firstIndex, int lastIndex) {
+            refresh(firstIndex, lastIndex);
+        }
+
+        @Override
+        public void drinksRemoved(int firstIndex, int lastIndex) {
+            dropRemovedDrinks();
+        }
+    };
+
+    // Creates a planner over the catalog using the configured half-life
+    RestockPlanner(DrinkCatalog catalog) {
+        this(catalog, Long.getLong("vending.restock.halfLifeMinutes", DEFAULT_HALF_LIFE_MINUTES) * 60 * 1000);
+    }
+
+    // Creates a planner over the catalog whose sales rates halve after the given time without sales
+    RestockPlanner(DrinkCatalog catalog, long halfLifeMillis) {
+        this.catalog = catalog;
+        this.tauMillis = Math.max(1, halfLifeMillis) / Math.log(2);
+        long now = System.currentTimeMillis();
+        this.epoch = now;
+        synchronized (this) {
+            for (Drink drink : catalog.getDrinks()) {
+                update(entryOf(drink), now);
+            }
+        }
+        catalog.addListener(catalogListener);
+    }
+
+    // Starts the sales rates from the hourly sales of the recent past, counting each hour's sales at
+    // its middle, so the plan is useful right after a restart
+    synchronized void seed(SalesReport salesReport, long now) {
+        Map<String, List<Drink>> drinksByName = new HashMap<>();
+        for (Drink drink : entries.keySet()) {
+            drinksByName.computeIfAbsent(drink.getName(), name -> new ArrayList<>()).add(drink);
+        }
+        // Sales older than ten lifetimes have decayed below 0.005% of their weight
+        salesReport.forEachHourlySale(now - (long) (10 * tauMillis), (name, hourStart, units) -> {
+            long soldAt = Math.min(now, hourStart + MILLIS_PER_HOUR / 2);
+            for (Drink drink : drinksByName.getOrDefault(name, new ArrayList<>())) {
+                Entry entry = entries.get(drink);
+                entry.rate = entry.rate * decay(soldAt - entry.rateTime) + units / tauMillis;
+                entry.rateTime = soldAt;
+            }
+        });
+        for (Entry entry : entries.values()) {
+            move(entry, now);
+        }
+    }
+
+    // Counts the units sold by one checkout at the given time
+    synchronized void recordSale(Map<Drink, Integer> sold, long time) {
+        for (Map.Entry<Drink, Integer> line : sold.entrySet()) {
+            Entry entry = entries.get(line.getKey());
+            if (entry == null) {
+                continue;  // Removed from the catalog meanwhile
+            }
+            byStockout.remove(entry);
+            entry.rate = currentRate(entry, time) + line.getValue() / tauMillis;
+            entry.rateTime = time;
+            update(entry, time);
+        }
+    }
+
+    // Returns up to count drinks in the order they are expected to run out, the most urgent first
+    synchronized List<Forecast> getMostAtRisk(int count) {
+        long now = System.currentTimeMillis();
+        List<Forecast> forecasts = new ArrayList<>(Math.min(count, byStockout.size()));
+        for (Entry entry : byStockout) {
+            if (forecasts.size() == count) {
+                break;
+            }
+            double rate = currentRate(entry, now);
+            forecasts.add(new Forecast(entry.drink, entry.available, rate * MILLIS_PER_HOUR,
+                                       stockoutAt(entry.available, rate, now)));
+        }
+        return forecasts;
+    }
+
+    // Stops following the catalog
+    void close() {
+        catalog.removeListener(catalogListener);
+    }
+
+    // Re-reads the stock of the drinks at the given catalog positions
+    private synchronized void refresh(int firstIndex, int lastIndex) {
+        List<Drink> drinks = catalog.getDrinks();
+        long now = System.currentTimeMillis();
+        for (int index = Math.max(0, firstIndex); index <= lastIndex && index < drinks.size(); index++) {
+            move(entryOf(drinks.get(index)), now);
+        }
+    }
+
+    // Forgets the drinks that are no longer in the catalog
+    private synchronized void dropRemovedDrinks() {
+        Map<Drink, Boolean> present = new IdentityHashMap<>();
+        for (Drink drink : catalog.getDrinks()) {
+            present.put(drink, Boolean.TRUE);
+        }
+        entries.values().removeIf(entry -> {
+            if (present.containsKey(entry.drink)) {
+                return false;
+            }
+            byStockout.remove(entry);
+            return true;
+        });
+    }
+
+    // Returns the entry of a drink, creating it on first sight
+    private Entry entryOf(Drink drink) {
+        Entry entry = entries.get(drink);
+        if (entry == null) {
+            entry = new Entry(drink, nextSequence++);
+            entries.put(drink, entry);
+        }
+        return entry;
+    }
+
+    // Takes an entry out of the index, recomputes it and puts it back
+    private void move(Entry entry, long now) {
+        byStockout.remove(entry);
+        update(entry, now);
+    }
+
+    // Recomputes the stock and sort key of an entry that is not in the index, and adds it
+    private void update(Entry entry, long now) {
+        entry.available = Math.max(0, entry.drink.getAvailableQuantity());
+        if (entry.available == 0) {
+            entry.urgency = Double.NEGATIVE_INFINITY;  // Already empty
+        } else if (entry.rate <= 0) {
+            entry.urgency = Double.POSITIVE_INFINITY;  // Not selling
+        } else {
+            entry.urgency = Math.log(entry.available) - Math.log(entry.rate) - (entry.rateTime - epoch) / tauMillis;
+        }
+        byStockout.add(entry);
+    }
+
+    // Returns the expected time the stock runs out at the given rate, 0 if it has, NEVER if it is not selling
+    private static long stockoutAt(int available, double rate, long now) {
+        if (available == 0) {
+            return 0;
+        }
+        if (rate <= 0) {
+            return NEVER;
+        }
+        return now + (long) Math.min(available / rate, NEVER / 2.0);
+    }
+
+    // Returns the sales rate of an entry decayed to the given time, in units per millisecond
+    private double currentRate(Entry entry, long now) {
+        return entry.rate * decay(now - entry.rateTime);
+    }
+
+    // Returns the weight left after the given time
+    private double decay(long elapsedMillis) {
+        return elapsedMillis <= 0 ? 1 : Math.exp(-elapsedMillis / tauMillis);
+    }
+
+    // Sales rate and position in the index of one drink
+    private static final class Entry {
+        final Drink drink;
+        final long sequence;
+        double rate;       // Units per millisecond as of rateTime
+        long rateTime;     // When the rate was last brought up to date
+        int available;     // Stock that could still be sold when last looked at
+        double urgency;    // Sort key, lowest first: -infinity if empty, +infinity if not selling
+
+        Entry(Drink drink, long sequence) {
+            this.drink = drink;
+            this.sequence = sequence;
+        }
+    }
+
+    // Expected stockout of one drink, as shown to staff
+    static final class Forecast {
+        final Drink drink;
+        final int available;        // Stock that can still be sold
+        final double unitsPerHour;  // Recent sales rate
+        final long stockoutAt;      // Expected time the stock runs out, 0 if it has, NEVER if it is not selling
+
+        Forecast(Drink drink, int available, double unitsPerHour, long stockoutAt) {
+            this.drink = drink;
+            this.available = available;
+            this.unitsPerHour = unitsPerHour;
+            this.stockoutAt = stockoutAt;
+        }
+    }
+}
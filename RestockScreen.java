@@ -0,0 +1,138 @@
+// Importing necessary packages for GUI components and event handling
+import javax.swing.JButton;
+import javax.swing.JFrame;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JSpinner;
+import javax.swing.JTable;
+import javax.swing.SpinnerNumberModel;
+import javax.swing.Timer;
+import javax.swing.table.AbstractTableModel;
+import java.awt.BorderLayout;
+import java.awt.FlowLayout;
+
+// Importing necessary packages for list data structures
+import java.util.ArrayList;
+import java.util.List;
+
+// Window listing the drinks that will run out first, according to the restock planner.
+// The planner keeps the drinks sorted, so each refresh only reads the first rows of its index.
+// The list refreshes itself every few seconds while the window is open.
+class RestockScreen extends JFrame {
+
+    // Time between automatic refreshes
+    private static final int REFRESH_MILLIS = 5000;
+
+    private static final String[] COLUMN_NAMES = {"Drink", "Available", "Sold / hour", "Runs out"};
+
+    private final RestockPlanner planner;
+    private final ForecastTableModel tableModel = new ForecastTableModel();
+    private final JSpinner countSpinner;  // Number of drinks shown
+    private final Timer refreshTimer;
+
+    // Creates a screen over the given planner
+    RestockScreen(RestockPlanner planner) {
+        this.planner = planner;
+        setTitle("Restock Plan");
+        setSize(550, 400);
+        setLocationRelativeTo(null);
+        setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
+
+        JTable table = new JTable(tableModel);
+        table.getColumnModel().getColumn(0).setPreferredWidth(200);
+
+        countSpinner = new JSpinner(new SpinnerNumberModel(20, 1, 1000, 5));
+        countSpinner.addChangeListener(e -> refresh());
+        JButton refreshButton = new JButton("Refresh");
+        refreshButton.addActionListener(e -> refresh());
+
+        JPanel controlsPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        controlsPanel.add(new JLabel("Show:"));
+        controlsPanel.add(countSpinner);
+        controlsPanel.add(refreshButton);
+
+        add(controlsPanel, BorderLayout.NORTH);
+        add(new JScrollPane(table), BorderLayout.CENTER);
+
+        refreshTimer = new Timer(REFRESH_MILLIS, e -> refresh());
+        refreshTimer.start();
+        refresh();
+    }
+
+    @Override
+    public void dispose() {
+        refreshTimer.stop();
+        super.dispose();
+    }
+
+    // Shows the current top of the planner
+    private void refresh() {
+        tableModel.setForecasts(planner.getMostAtRisk((Integer) countSpinner.getValue()), System.currentTimeMillis());
+    }
+
+    // Describes when a drink runs out, relative to now
+    static String describeStockout(long stockoutAt, long now) {
+        if (stockoutAt == 0) {
+            return "Empty";
+        }
+        if (stockoutAt == RestockPlanner.NEVER) {
+            return "Not selling";
+        }
+        long minutes = Math.max(0, (stockoutAt - now) / 60000);
+        if (minutes < 60) {
+            return "in " + minutes + " min";
+        }
+        if (minutes < 48 * 60) {
+            return String.format("in %.1f h", minutes / 60.0);
+        }
+        return "in " + minutes / (24 * 60) + " days";
+    }
+
+    // Rows of the forecasts last read from the planner
+    private static final class ForecastTableModel extends AbstractTableModel {
+        private List<RestockPlanner.Forecast> forecasts = new ArrayList<>();
+        private long readAt;  // When the forecasts were read
+
+        void setForecasts(List<RestockPlanner.Forecast> forecasts, long readAt) {
+            this.forecasts = forecasts;
+            this.readAt = readAt;
+            fireTableDataChanged();
+        }
+
+        @Override
+        public int getRowCount() {
+            return forecasts.size();
+        }
+
+        @Override
+        public int getColumnCount() {
+            return COLUMN_NAMES.length;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            return COLUMN_NAMES[column];
+        }
+
+        @Override
+        public Class<?> getColumnClass(int column) {
+            return column == 1 ? Integer.class : String.class;
+        }
+
+        @Override
+        public Object getValueAt(int row, int column) {
+            RestockPlanner.Forecast forecast = forecasts.get(row);
+            switch (column) {
+                case 0:
+                    return forecast.drink.getName();
+                case 1:
+                    return forecast.available;
+                case 2:
+                    return String.format("%.1f", forecast.unitsPerHour);
+                default:
+                    return describeStockout(forecast.stockoutAt, readAt);
+            }
+        }
+    }
+}
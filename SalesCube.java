@@ -0,0 +1,400 @@
+// Importing necessary packages for array helpers and calendar arithmetic
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.concurrent.TimeUnit;
+
+// Units sold per drink and hour, held in primitive arrays.
+// Drink names are interned to dense int ids through an open-addressing table that hashes the name
+// straight out of the order text, so counting a sale neither boxes a number nor cuts out a
+// substring once the drink is known. Every hour with sales gets a row of units per drink id and
+// its revenue, so per-drink totals, revenue per hour and the best seller of any time range are
+// answered from the cube without rereading the order history. Cubes built from different parts
+// of the log can be merged. Not thread-safe; SalesReport guards it.
+class SalesCube {
+
+    // Orders written before timestamps were recorded have no hour
+    static final long UNKNOWN_TIME = 0;
+
+    private static final long HOUR_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    // Drink name table: ids are handed out in order of first sale
+    private String[] names = new String[16];
+    private int[] nameHashes = new int[16];
+    private int drinkCount;
+    private int[] slots = new int[32];  // Open-addressing table of id + 1, 0 for an empty slot
+
+    // Totals over all time, indexed by drink id
+    private long[] totalUnits = new long[16];
+    private int bestSeller = -1;         // Drink id with the most units overall, -1 before any sale
+
+    // One row per hour with sales, in ascending hour order
+    private int[] rowHours = new int[16];       // Hours since the epoch
+    private int[][] rowUnits = new int[16][];   // Units per drink id in that hour
+    private double[] rowRevenue = new double[16];
+    private int rowCount;
+
+    // Returns the id of the drink named by text[start, end), adding it on first sight
+    int intern(CharSequence text, int start, int end) {
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + text.charAt(i);  // Same hash as String.hashCode of the name
+        }
+        int mask = slots.length - 1;
+        for (int slot = mix(hash) & mask; ; slot = (slot + 1) & mask) {
+            int entry = slots[slot];
+            if (entry == 0) {
+                return add(text.subSequence(start, end).toString(), hash, slot);
+            }
+            int id = entry - 1;
+            if (nameHashes[id] == hash && regionEquals(names[id], text, start, end)) {
+                return id;
+            }
+        }
+    }
+
+    // Returns the id of a drink name, or -1 if it has never sold
+    int idOf(String name) {
+        int hash = name.hashCode();
+        int mask = slots.length - 1;
+        for (int slot = mix(hash) & mask; ; slot = (slot + 1) & mask) {
+            int entry = slots[slot];
+            if (entry == 0) {
+                return -1;
+            }
+            if (nameHashes[entry - 1] == hash && names[entry - 1].equals(name)) {
+                return entry - 1;
+            }
+        }
+    }
+
+    // Counts units of a drink sold at the given time (UNKNOWN_TIME if not known)
+    void addUnits(int drinkId, int units, long timestamp) {
+        totalUnits[drinkId] += units;
+        if (bestSeller < 0 || totalUnits[drinkId] > totalUnits[bestSeller]) {
+            bestSeller = drinkId;
+        }
+        addHourUnits(drinkId, units, timestamp);
+    }
+
+    // Counts units in the hour of the timestamp only, leaving the totals alone; used when the totals
+    // were restored separately from a checkpoint
+    void addHourUnits(int drinkId, int units, long timestamp) {
+        if (timestamp == UNKNOWN_TIME) {
+            return;
+        }
+        int row = rowFor(timestamp);
+        int[] sold = rowUnits[row];
+        if (drinkId >= sold.length) {
+            sold = rowUnits[row] = Arrays.copyOf(sold, Math.max(drinkId + 1, sold.length * 2));
+        }
+        sold[drinkId] += units;
+    }
+
+    // Adds revenue taken at the given time (UNKNOWN_TIME if not known)
+    void addRevenue(double amount, long timestamp) {
+        if (timestamp != UNKNOWN_TIME) {
+            rowRevenue[rowFor(timestamp)] += amount;
+        }
+    }
+
+    // Adds the order summary in text[start, end) placed at the given time and returns its total, or NaN
+    // if it has no total line. Lines are scanned in place: "name x quantity = cost" lines count units
+    // against the drink's id and the "Total: " line adds revenue, without splitting the text.
+    double addOrder(String orderSummary, int start, int end, long timestamp) {
+        double total = Double.NaN;
+        int lineStart = start;
+        while (lineStart < end) {
+            int lineEnd = orderSummary.indexOf('\n', lineStart);
+            if (lineEnd < 0 || lineEnd > end) {
+                lineEnd = end;
+            }
+            int textEnd = lineEnd > lineStart && orderSummary.charAt(lineEnd - 1) == '\r' ? lineEnd - 1 : lineEnd;
+            int equals = orderSummary.lastIndexOf(" = ", textEnd - 3);
+            int times = equals > lineStart ? orderSummary.lastIndexOf(" x ", equals) : -1;
+            if (times >= lineStart) {  // Check if the line contains drink order data.
+                int quantity = parseQuantity(orderSummary, times + 3, equals);
+                int nameStart = skipSpaces(orderSummary, lineStart, times);
+                int nameEnd = times;
+                while (nameEnd > nameStart && orderSummary.charAt(nameEnd - 1) == ' ') {
+                    nameEnd--;
+                }
+                if (quantity > 0 && nameEnd > nameStart) {
+                    addUnits(intern(orderSummary, nameStart, nameEnd), quantity, timestamp);
+                }
+            } else if (orderSummary.startsWith("Total: ", lineStart)) {  // Check if the line contains total sale data.
+                try {
+                    total = Double.parseDouble(orderSummary.substring(lineStart + 7, textEnd).trim());
+                    addRevenue(total, timestamp);
+                } catch (NumberFormatException e) {
+                    // Skip lines that do not follow the order summary format
+                }
+            }
+            lineStart = lineEnd + 1;
+        }
+        return total;
+    }
+
+    // Adds every sale of another cube to this one; drinks are matched by name
+    void merge(SalesCube other) {
+        int[] ids = new int[other.drinkCount];
+        for (int id = 0; id < other.drinkCount; id++) {
+            String name = other.names[id];
+            ids[id] = intern(name, 0, name.length());
+            totalUnits[ids[id]] += other.totalUnits[id];
+            if (bestSeller < 0 || totalUnits[ids[id]] > totalUnits[bestSeller]) {
+                bestSeller = ids[id];
+            }
+        }
+        for (int otherRow = 0; otherRow < other.rowCount; otherRow++) {
+            long hourStart = other.getHourStart(otherRow);
+            addRevenue(other.rowRevenue[otherRow], hourStart);
+            int[] sold = other.rowUnits[otherRow];
+            for (int id = 0; id < Math.min(sold.length, ids.length); id++) {
+                if (sold[id] != 0) {
+                    addHourUnits(ids[id], sold[id], hourStart);
+                }
+            }
+        }
+    }
+
+    // Returns an independent copy of the cube, made with array copies only
+    SalesCube copy() {
+        SalesCube copy = new SalesCube();
+        copy.names = names.clone();
+        copy.nameHashes = nameHashes.clone();
+        copy.drinkCount = drinkCount;
+        copy.slots = slots.clone();
+        copy.totalUnits = totalUnits.clone();
+        copy.bestSeller = bestSeller;
+        copy.rowHours = rowHours.clone();
+        copy.rowUnits = new int[rowUnits.length][];
+        for (int row = 0; row < rowCount; row++) {
+            copy.rowUnits[row] = rowUnits[row].clone();  // Rows are updated in place, so each one is copied
+        }
+        copy.rowRevenue = rowRevenue.clone();
+        copy.rowCount = rowCount;
+        return copy;
+    }
+
+    // Returns the number of distinct drinks that have sold
+    int getDrinkCount() {
+        return drinkCount;
+    }
+
+    // Returns the name of a drink id
+    String getName(int drinkId) {
+        return names[drinkId];
+    }
+
+    // Returns the units sold of a drink id over all time
+    long getUnits(int drinkId) {
+        return totalUnits[drinkId];
+    }
+
+    // Returns the units sold of a drink over all time, 0 if it never sold
+    long getUnits(String name) {
+        int id = idOf(name);
+        return id < 0 ? 0 : totalUnits[id];
+    }
+
+    // Returns the drink with the most units sold over all time, or null before any sale
+    String getBestSeller() {
+        return bestSeller < 0 ? null : names[bestSeller];
+    }
+
+    // Returns the drink with the most units sold in [fromMillis, toMillis), or null if nothing sold then.
+    // Hours are the unit of time, so the range is widened to whole hours.
+    String getBestSeller(long fromMillis, long toMillis) {
+        long[] units = new long[drinkCount];
+        int end = firstRowAtOrAfter(hourOf(toMillis - 1) + 1);
+        for (int row = firstRowAtOrAfter(hourOf(fromMillis)); row < end; row++) {
+            int[] sold = rowUnits[row];
+            for (int id = 0; id < Math.min(sold.length, units.length); id++) {
+                units[id] += sold[id];
+            }
+        }
+        int best = -1;
+        for (int id = 0; id < units.length; id++) {
+            if (units[id] > 0 && (best < 0 || units[id] > units[best])) {
+                best = id;
+            }
+        }
+        return best < 0 ? null : names[best];
+    }
+
+    // Returns the best seller since local midnight, or null if nothing sold today
+    String getBestSellerToday() {
+        Calendar midnight = Calendar.getInstance();
+        midnight.set(Calendar.HOUR_OF_DAY, 0);
+        midnight.set(Calendar.MINUTE, 0);
+        midnight.set(Calendar.SECOND, 0);
+        midnight.set(Calendar.MILLISECOND, 0);
+        long start = midnight.getTimeInMillis();
+        midnight.add(Calendar.DAY_OF_MONTH, 1);
+        return getBestSeller(start, midnight.getTimeInMillis());
+    }
+
+    // Returns the revenue of each of the given number of hours starting with the hour holding fromMillis
+    double[] getRevenuePerHour(long fromMillis, int hours) {
+        double[] revenue = new double[hours];
+        int firstHour = hourOf(fromMillis);
+        for (int row = firstRowAtOrAfter(firstHour); row < rowCount && rowHours[row] < firstHour + hours; row++) {
+            revenue[rowHours[row] - firstHour] = rowRevenue[row];
+        }
+        return revenue;
+    }
+
+    // Returns the number of hours that have sales
+    int getHourCount() {
+        return rowCount;
+    }
+
+    // Returns the start of the hour of the given row, in milliseconds since the epoch
+    long getHourStart(int row) {
+        return rowHours[row] * HOUR_MILLIS;
+    }
+
+    // Returns the revenue of the given row
+    double getHourRevenue(int row) {
+        return rowRevenue[row];
+    }
+
+    // Returns the units of a drink id sold in the given row
+    int getHourUnits(int row, int drinkId) {
+        int[] units = rowUnits[row];
+        return drinkId < units.length ? units[drinkId] : 0;
+    }
+
+    // Forgets every sale
+    void clear() {
+        Arrays.fill(names, 0, drinkCount, null);
+        drinkCount = 0;
+        slots = new int[32];
+        Arrays.fill(totalUnits, 0);
+        bestSeller = -1;
+        Arrays.fill(rowUnits, 0, rowCount, null);
+        rowCount = 0;
+    }
+
+    // Adds a new drink name in the given free slot and returns its id
+    private int add(String name, int hash, int slot) {
+        int id = drinkCount++;
+        if (id == names.length) {
+            names = Arrays.copyOf(names, id * 2);
+            nameHashes = Arrays.copyOf(nameHashes, id * 2);
+            totalUnits = Arrays.copyOf(totalUnits, id * 2);
+        }
+        names[id] = name;
+        nameHashes[id] = hash;
+        slots[slot] = id + 1;
+        if (drinkCount * 2 > slots.length) {
+            rehash(slots.length * 2);  // Keep the table at most half full
+        }
+        return id;
+    }
+
+    // Rebuilds the slot table with the given capacity (a power of two)
+    private void rehash(int capacity) {
+        slots = new int[capacity];
+        int mask = capacity - 1;
+        for (int id = 0; id < drinkCount; id++) {
+            int slot = mix(nameHashes[id]) & mask;
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = id + 1;
+        }
+    }
+
+    // Returns the row of the hour holding the timestamp, creating it if needed
+    private int rowFor(long timestamp) {
+        int hour = hourOf(timestamp);
+        if (rowCount > 0 && rowHours[rowCount - 1] == hour) {
+            return rowCount - 1;  // Orders arrive in time order, so this is almost always the hit
+        }
+        int row = firstRowAtOrAfter(hour);
+        if (row < rowCount && rowHours[row] == hour) {
+            return row;
+        }
+        if (rowCount == rowHours.length) {
+            rowHours = Arrays.copyOf(rowHours, rowCount * 2);
+            rowUnits = Arrays.copyOf(rowUnits, rowCount * 2);
+            rowRevenue = Arrays.copyOf(rowRevenue, rowCount * 2);
+        }
+        // Shift later rows up for the rare order that arrives out of time order
+        System.arraycopy(rowHours, row, rowHours, row + 1, rowCount - row);
+        System.arraycopy(rowUnits, row, rowUnits, row + 1, rowCount - row);
+        System.arraycopy(rowRevenue, row, rowRevenue, row + 1, rowCount - row);
+        rowHours[row] = hour;
+        rowUnits[row] = new int[Math.max(16, drinkCount)];
+        rowRevenue[row] = 0;
+        rowCount++;
+        return row;
+    }
+
+    // Returns the first row whose hour is at or after the given hour
+    private int firstRowAtOrAfter(int hour) {
+        int low = 0;
+        int high = rowCount;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (rowHours[middle] < hour) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    // Returns the number of whole hours between the epoch and the timestamp
+    private static int hourOf(long timestamp) {
+        return (int) Math.floorDiv(timestamp, HOUR_MILLIS);
+    }
+
+    // Spreads the bits of a string hash so that similar names land in different slots
+    private static int mix(int hash) {
+        int h = hash * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    // Compares a string with a region of a character sequence
+    private static boolean regionEquals(String name, CharSequence text, int start, int end) {
+        if (name.length() != end - start) {
+            return false;
+        }
+        for (int i = 0; i < name.length(); i++) {
+            if (name.charAt(i) != text.charAt(start + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Parses the digits between two positions, or returns -1 if they are not a plain number
+    private static int parseQuantity(String text, int start, int end) {
+        start = skipSpaces(text, start, end);
+        int quantity = 0;
+        int digits = 0;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c == ' ') {
+                break;
+            }
+            if (c < '0' || c > '9' || digits == 9) {
+                return -1;
+            }
+            quantity = quantity * 10 + (c - '0');
+            digits++;
+        }
+        return digits > 0 ? quantity : -1;
+    }
+
+    // Returns the first position at or after start that is not a space, or end
+    private static int skipSpaces(String text, int start, int end) {
+        while (start < end && text.charAt(start) == ' ') {
+            start++;
+        }
+        return start;
+    }
+}
@@ -0,0 +1,319 @@
+// Importing necessary packages for file operations
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+
+// Importing necessary packages for list and map data structures
+import java.util.List;
+import java.util.TreeMap;
+
+// Sales aggregates behind "Generate Reports", kept up to date as orders are placed.
+// Units per drink and hour and revenue per hour live in a SalesCube. The aggregates remember how
+// many records of the order log they cover and are checkpointed to report.checkpoint every
+// CHECKPOINT_INTERVAL orders, so a restart only replays the orders written after the last
+// checkpoint and a report is answered without reading orders.txt. The checkpoint is written on the
+// I/O thread from a copy of the aggregates, so a checkout never waits for it.
+class SalesReport {
+
+    // Default checkpoint file used by the application
+    static final String CHECKPOINT_FILE = "report.checkpoint";
+
+    // Number of orders between two checkpoints
+    static final int CHECKPOINT_INTERVAL = 100;
+
+    // Number of orders read from the log at a time while catching up
+    private static final int REPLAY_BATCH = 1000;
+
+    // Backlogs of at least this many orders are parsed on all cores
+    private static final int PARALLEL_REPLAY = 4 * ParallelOrderParser.CHUNK_ORDERS;
+
+    // Most orders held back while waiting for an earlier record number to arrive
+    private static final int MAX_EARLY_ORDERS = 10000;
+
+    // Checkpoints written before the hourly cube existed lack this version and are rebuilt from the log
+    private static final int CHECKPOINT_VERSION = 2;
+
+    // Time taken to read new orders from the log into the aggregates
+    private static final LatencyHistogram REPLAY_TIME = Metrics.getDefault().timer("reportReplay");
+
+    private final OrderLog orderLog;        // Source of truth for the aggregates
+    private final File checkpointFile;      // Last saved state of the aggregates
+
+    private final SalesCube cube = new SalesCube();  // Units per drink and hour, revenue per hour
+    private double highestSale;             // Largest order total seen so far
+    private int ordersApplied;              // Number of order log records reflected in the aggregates
+    private int ordersSinceCheckpoint;      // Orders applied since the last checkpoint was taken
+    private boolean checkpointQueued;       // A checkpoint is waiting for the I/O thread
+    private final Object checkpointLock = new Object();  // One write of the checkpoint file at a time
+
+    // Orders reported ahead of an earlier record number, which concurrent checkouts can do
+    private final TreeMap<Integer, EarlyOrder> earlyOrders = new TreeMap<>();
+
+    // Creates a report over the given order log and checkpoint file and restores its last state
+    SalesReport(OrderLog orderLog, File checkpointFile) {
+        this.orderLog = orderLog;
+        this.checkpointFile = checkpointFile;
+        loadCheckpoint();
+        catchUp();
+    }
+
+    // Applies an order placed at the given time that was just appended to the log as the given record number
+    synchronized void orderPlaced(int recordNumber, long timestamp, String orderSummary) {
+        if (recordNumber < ordersApplied) {
+            return;  // Already read from the log while catching up
+        }
+        earlyOrders.put(recordNumber, new EarlyOrder(timestamp, orderSummary));
+        // Apply every order that is now next in line
+        while (!earlyOrders.isEmpty() && earlyOrders.firstKey() == ordersApplied) {
+            EarlyOrder order = earlyOrders.pollFirstEntry().getValue();
+            applyOrder(order.summary, order.timestamp);
+            ordersApplied++;
+            ordersSinceCheckpoint++;
+        }
+        if (earlyOrders.size() > MAX_EARLY_ORDERS) {
+            catchUp();  // The missing record was written by someone else, so read it from the log
+        }
+        if (ordersSinceCheckpoint >= CHECKPOINT_INTERVAL) {
+            queueCheckpoint();
+        }
+    }
+
+    // Returns the name of the drink with the most units sold, or null if nothing was sold yet
+    synchronized String getMostPopularDrink() {
+        catchUp();
+        return cube.getBestSeller();
+    }
+
+    // Returns the name of the drink with the most units sold today, or null if nothing sold today
+    synchronized String getBestSellerToday() {
+        catchUp();
+        return cube.getBestSellerToday();
+    }
+
+    // Returns the units sold of a drink over all time
+    synchronized long getUnitsSold(String drinkName) {
+        catchUp();
+        return cube.getUnits(drinkName);
+    }
+
+    // Returns the revenue of each of the given number of hours starting with the hour holding fromMillis
+    synchronized double[] getRevenuePerHour(long fromMillis, int hours) {
+        catchUp();
+        return cube.getRevenuePerHour(fromMillis, hours);
+    }
+
+    // Passes the units sold of every drink in every hour that starts at or after fromMillis, oldest hour first
+    synchronized void forEachHourlySale(long fromMillis, HourlySales sales) {
+        catchUp();
+        int firstRow = cube.getHourCount();
+        while (firstRow > 0 && cube.getHourStart(firstRow - 1) >= fromMillis) {
+            firstRow--;
+        }
+        for (int row = firstRow; row < cube.getHourCount(); row++) {
+            for (int id = 0; id < cube.getDrinkCount(); id++) {
+                int units = cube.getHourUnits(row, id);
+                if (units != 0) {
+                    sales.sold(cube.getName(id), cube.getHourStart(row), units);
+                }
+            }
+        }
+    }
+
+    // Receives the units of one drink sold in one hour
+    interface HourlySales {
+        void sold(String drinkName, long hourStart, int units);
+    }
+
+    // Returns the largest order total
+    synchronized double getHighestSale() {
+        catchUp();
+        return highestSale;
+    }
+
+    // Adds the aggregates of this report to the given cube, for reports over several order logs
+    synchronized void mergeInto(SalesCube target) {
+        catchUp();
+        target.merge(cube);
+    }
+
+    // Returns the number of orders covered by the report
+    synchronized int getOrderCount() {
+        catchUp();
+        return ordersApplied;
+    }
+
+    // Applies every order record the aggregates do not cover yet
+    synchronized void catchUp() {
+        long start = System.nanoTime();
+        int startOrders = ordersApplied;
+        try {
+            int orderCount = orderLog.size();
+            if (orderCount < ordersApplied) {
+                reset();  // The order log was replaced, so the aggregates have to be rebuilt
+            }
+            if (orderCount - ordersApplied >= PARALLEL_REPLAY) {
+                ParallelOrderParser.Result parsed = new ParallelOrderParser(orderLog).parse(ordersApplied, orderCount);
+                cube.merge(parsed.cube);
+                highestSale = Math.max(highestSale, parsed.highestSale);
+                ordersSinceCheckpoint += orderCount - ordersApplied;
+                ordersApplied = orderCount;
+            }
+            while (ordersApplied < orderCount) {
+                List<String> orders = orderLog.readRange(ordersApplied, REPLAY_BATCH);
+                long[] timestamps = orderLog.readTimestamps(ordersApplied, orders.size());
+                for (int i = 0; i < orders.size(); i++) {
+                    applyOrder(orders.get(i), timestamps[i]);
+                }
+                ordersApplied += orders.size();
+                ordersSinceCheckpoint += orders.size();
+            }
+            earlyOrders.headMap(ordersApplied).clear();  // Those were just read from the log
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        if (ordersApplied != startOrders) {
+            REPLAY_TIME.record(System.nanoTime() - start);  // Only catch-ups that had orders to read
+        }
+        if (ordersSinceCheckpoint >= CHECKPOINT_INTERVAL) {
+            queueCheckpoint();
+        }
+    }
+
+    // Writes the aggregates to the checkpoint file and waits for the write
+    synchronized void saveCheckpoint() {
+        ordersSinceCheckpoint = 0;
+        writeCheckpoint(cube, ordersApplied, highestSale);
+    }
+
+    // Has the I/O thread write a checkpoint; the aggregates are copied when the write starts, so checkpoints
+    // requested while one is waiting are folded into it
+    private void queueCheckpoint() {
+        if (checkpointQueued) {
+            return;
+        }
+        checkpointQueued = true;
+        AsyncIo.run(this::writeQueuedCheckpoint, null, null);
+    }
+
+    // Copies the aggregates and writes them without holding the report, so orders keep being applied meanwhile
+    private void writeQueuedCheckpoint() {
+        SalesCube cubeCopy;
+        int ordersCovered;
+        double highestCovered;
+        synchronized (this) {
+            checkpointQueued = false;
+            ordersSinceCheckpoint = 0;
+            cubeCopy = cube.copy();
+            ordersCovered = ordersApplied;
+            highestCovered = highestSale;
+        }
+        writeCheckpoint(cubeCopy, ordersCovered, highestCovered);
+    }
+
+    // Writes the given aggregates to the checkpoint file; a failed write is retried with the next checkpoint
+    private void writeCheckpoint(SalesCube sales, int orders, double highest) {
+        synchronized (checkpointLock) {
+            File tempFile = new File(checkpointFile.getPath() + ".tmp");
+            try (BufferedWriter writer = new BufferedWriter(new FileWriter(tempFile))) {
+                writer.write("version," + CHECKPOINT_VERSION);
+                writer.newLine();
+                writer.write("orders," + orders);
+                writer.newLine();
+                writer.write("highest," + highest);
+                writer.newLine();
+                // Names go last so that names containing commas survive the round trip
+                for (int id = 0; id < sales.getDrinkCount(); id++) {
+                    writer.write("drink," + sales.getUnits(id) + "," + sales.getName(id));
+                    writer.newLine();
+                }
+                for (int row = 0; row < sales.getHourCount(); row++) {
+                    long hourStart = sales.getHourStart(row);
+                    writer.write("hour," + hourStart + "," + sales.getHourRevenue(row));
+                    writer.newLine();
+                    for (int id = 0; id < sales.getDrinkCount(); id++) {
+                        int units = sales.getHourUnits(row, id);
+                        if (units != 0) {
+                            writer.write("sold," + hourStart + "," + units + "," + sales.getName(id));
+                            writer.newLine();
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                e.printStackTrace();
+                return;
+            }
+            try {
+                InventoryJournal.moveReplacing(tempFile, checkpointFile);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    // Adds one order summary placed at the given time to the aggregates
+    private void applyOrder(String orderSummary, long timestamp) {
+        double totalSale = cube.addOrder(orderSummary, 0, orderSummary.length(), timestamp);
+        if (!Double.isNaN(totalSale)) {
+            highestSale = Math.max(highestSale, totalSale);
+        }
+    }
+
+    // Restores the aggregates from the checkpoint file, if there is a usable one
+    private void loadCheckpoint() {
+        if (!checkpointFile.exists()) {
+            return;
+        }
+        int version = 0;
+        try (BufferedReader reader = new BufferedReader(new FileReader(checkpointFile))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] parts = line.split(",", 4);
+                if (parts[0].equals("version") && parts.length == 2) {
+                    version = Integer.parseInt(parts[1]);
+                } else if (parts[0].equals("orders") && parts.length == 2) {
+                    ordersApplied = Integer.parseInt(parts[1]);
+                } else if (parts[0].equals("highest") && parts.length == 2) {
+                    highestSale = Double.parseDouble(parts[1]);
+                } else if (parts[0].equals("drink") && parts.length >= 3) {
+                    String name = line.substring(parts[0].length() + parts[1].length() + 2);
+                    cube.addUnits(cube.intern(name, 0, name.length()), Integer.parseInt(parts[1]), SalesCube.UNKNOWN_TIME);
+                } else if (parts[0].equals("hour") && parts.length == 3) {
+                    cube.addRevenue(Double.parseDouble(parts[2]), Long.parseLong(parts[1]));
+                } else if (parts[0].equals("sold") && parts.length == 4) {
+                    cube.addHourUnits(cube.intern(parts[3], 0, parts[3].length()), Integer.parseInt(parts[2]),
+                                      Long.parseLong(parts[1]));
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            e.printStackTrace();
+            reset();  // Fall back to replaying the whole order log
+            return;
+        }
+        if (version != CHECKPOINT_VERSION) {
+            reset();  // Written before hourly sales were kept, so rebuild everything from the log
+        }
+    }
+
+    // Clears the aggregates so they are rebuilt from the start of the order log
+    private void reset() {
+        cube.clear();
+        earlyOrders.clear();
+        highestSale = 0;
+        ordersApplied = 0;
+        ordersSinceCheckpoint = 0;
+    }
+
+    // An order reported before the orders ahead of it
+    private static final class EarlyOrder {
+        final long timestamp;
+        final String summary;
+
+        EarlyOrder(long timestamp, String summary) {
+            this.timestamp = timestamp;
+            this.summary = summary;
+        }
+    }
+}
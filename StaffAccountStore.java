@@ -0,0 +1,306 @@
+// Importing necessary packages for file operations
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+
+// Importing necessary packages for password hashing
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+
+// Importing necessary packages for list and map data structures
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Staff accounts kept in a hash index by username and persisted in an append-only staff.txt.
+// Logins look the account up in the index instead of scanning every account. Creating an account,
+// renaming one or changing a password appends one line to the file instead of rewriting it:
+//   ACCOUNT,username,hash    a new account
+//   RENAME,old,new           a username change
+//   PASSWORD,username,hash   a new password hash for an existing account
+// Once superseded lines outnumber the accounts the file is rewritten with one ACCOUNT line each.
+// Passwords are only stored as salted PBKDF2 hashes written as "pbkdf2$iterations$salt$hash".
+// The cost is set with the system property vending.staff.hashIterations and older hashes are
+// upgraded to it on the next successful login. Plain "username,password" lines from earlier
+// versions are hashed and the file is rewritten the first time it is loaded.
+class StaffAccountStore {
+
+    // Default file name used by the application
+    static final String STAFF_FILE = "staff.txt";
+
+    // PBKDF2 iterations used when the system property is not set
+    static final int DEFAULT_ITERATIONS = 65536;
+
+    // Store over staff.txt shared by every screen
+    private static StaffAccountStore shared;
+
+    // Superseded lines tolerated before the file is rewritten, however few accounts there are
+    private static final int MIN_COMPACT_LINES = 1000;
+
+    // Line types
+    private static final String ACCOUNT = "ACCOUNT";
+    private static final String RENAME = "RENAME";
+    private static final String PASSWORD = "PASSWORD";
+
+    // Hash parameters
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final String HASH_PREFIX = "pbkdf2";
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BITS = 256;
+
+    private final File file;
+    private final int iterations;
+    private final SecureRandom random = new SecureRandom();
+    private final Map<String, StaffAccount> accounts = new LinkedHashMap<>();  // Accounts by username, oldest first
+    private final String unknownUserHash;  // Checked for unknown usernames so they take as long as known ones
+    private int supersededLines;           // Lines in the file overridden by later lines
+
+    // Creates a store over staff.txt in the working directory
+    StaffAccountStore() {
+        this(new File(STAFF_FILE), Integer.getInteger("vending.staff.hashIterations", DEFAULT_ITERATIONS));
+    }
+
+    // Returns the store over staff.txt in the working directory, loading it on first use
+    static synchronized StaffAccountStore getDefault() {
+        if (shared == null) {
+            shared = new StaffAccountStore();
+        }
+        return shared;
+    }
+
+    // Creates a store over the given file, hashing new passwords with the given number of iterations
+    StaffAccountStore(File file, int iterations) {
+        this.file = file;
+        this.iterations = Math.max(1, iterations);
+        this.unknownUserHash = hash(new char[0]);
+        load();
+    }
+
+    // Returns whether the username and password belong to an account
+    synchronized boolean authenticate(String username, char[] password) {
+        StaffAccount account = accounts.get(username);
+        if (account == null) {
+            verify(password, unknownUserHash);
+            return false;
+        }
+        if (!verify(password, account.getPasswordHash())) {
+            return false;
+        }
+        if (iterationsOf(account.getPasswordHash()) != iterations) {
+            changePassword(account, password);  // Bring the hash up to the configured cost
+        }
+        return true;
+    }
+
+    // Adds an account; returns false if the username is taken or cannot be stored
+    synchronized boolean createAccount(String username, char[] password) {
+        if (!isValidUsername(username) || accounts.containsKey(username)) {
+            return false;
+        }
+        StaffAccount account = new StaffAccount(username, hash(password));
+        accounts.put(username, account);
+        append(ACCOUNT + "," + username + "," + account.getPasswordHash());
+        return true;
+    }
+
+    // Renames an account; returns false if it does not exist or the new username is taken
+    synchronized boolean renameAccount(String oldUsername, String newUsername) {
+        StaffAccount account = accounts.get(oldUsername);
+        if (account == null || !isValidUsername(newUsername) || accounts.containsKey(newUsername)) {
+            return false;
+        }
+        accounts.remove(oldUsername);
+        account.setUsername(newUsername);
+        accounts.put(newUsername, account);
+        append(RENAME + "," + oldUsername + "," + newUsername);
+        supersededLines++;
+        compactIfNeeded();
+        return true;
+    }
+
+    // Tells whether an account with the username exists
+    synchronized boolean contains(String username) {
+        return accounts.containsKey(username);
+    }
+
+    // Returns the number of accounts
+    synchronized int size() {
+        return accounts.size();
+    }
+
+    // Returns every username, oldest account first
+    synchronized List<String> getUsernames() {
+        return new ArrayList<>(accounts.keySet());
+    }
+
+    // Usernames are stored between commas on a single line
+    static boolean isValidUsername(String username) {
+        return username != null && !username.trim().isEmpty()
+               && username.indexOf(',') < 0 && username.indexOf('\n') < 0 && username.indexOf('\r') < 0;
+    }
+
+    // Stores a new hash for an account's password
+    private void changePassword(StaffAccount account, char[] password) {
+        account.setPasswordHash(hash(password));
+        append(PASSWORD + "," + account.getUsername() + "," + account.getPasswordHash());
+        supersededLines++;
+        compactIfNeeded();
+    }
+
+    // Reads the file into the index, hashing any plain text passwords left by earlier versions
+    private void load() {
+        List<StaffAccount> plainAccounts = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] parts = line.split(",", -1);
+                if (parts.length == 2) {
+                    // Earlier versions stored "username,password" in plain text
+                    if (!parts[0].isEmpty() && !accounts.containsKey(parts[0])) {
+                        StaffAccount account = new StaffAccount(parts[0], parts[1]);
+                        accounts.put(parts[0], account);
+                        plainAccounts.add(account);
+                    }
+                } else if (parts.length == 3) {
+                    apply(parts[0], parts[1], parts[2]);
+                }
+            }
+        } catch (IOException e) {
+            if (file.exists()) {
+                e.printStackTrace();
+            }
+            return;  // No accounts yet
+        }
+
+        if (!plainAccounts.isEmpty()) {
+            // Hashing is deliberately slow, so spread a large migration over every core
+            plainAccounts.parallelStream().forEach(account -> {
+                char[] password = account.getPasswordHash().toCharArray();
+                account.setPasswordHash(hash(password));
+                Arrays.fill(password, '\0');
+            });
+            compact();  // Replace the plain text passwords on disk straight away
+        } else {
+            compactIfNeeded();
+        }
+    }
+
+    // Applies one line of the file to the index, ignoring torn or unknown lines
+    private void apply(String type, String first, String second) {
+        switch (type) {
+            case ACCOUNT:
+                if (accounts.containsKey(first)) {
+                    supersededLines++;
+                }
+                accounts.put(first, new StaffAccount(first, second));
+                break;
+            case RENAME:
+                StaffAccount renamed = accounts.remove(first);
+                if (renamed != null) {
+                    renamed.setUsername(second);
+                    accounts.put(second, renamed);
+                }
+                supersededLines++;
+                break;
+            case PASSWORD:
+                StaffAccount account = accounts.get(first);
+                if (account != null) {
+                    account.setPasswordHash(second);
+                }
+                supersededLines++;
+                break;
+            default:
+                break;
+        }
+    }
+
+    // Appends one line to the file
+    private void append(String line) {
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(file, true))) {
+            writer.write(line);
+            writer.newLine();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    // Rewrites the file once superseded lines outnumber the accounts
+    private void compactIfNeeded() {
+        if (supersededLines >= Math.max(MIN_COMPACT_LINES, accounts.size())) {
+            compact();
+        }
+    }
+
+    // Rewrites the file with one ACCOUNT line per account
+    private void compact() {
+        File tempFile = new File(file.getPath() + ".tmp");
+        try {
+            try (BufferedWriter writer = new BufferedWriter(new FileWriter(tempFile))) {
+                for (StaffAccount account : accounts.values()) {
+                    writer.write(ACCOUNT + "," + account.getUsername() + "," + account.getPasswordHash());
+                    writer.newLine();
+                }
+            }
+            InventoryJournal.moveReplacing(tempFile, file);
+            supersededLines = 0;
+        } catch (IOException e) {
+            e.printStackTrace();  // Keep appending to the old file
+        }
+    }
+
+    // Hashes a password with a fresh salt at the configured cost
+    private String hash(char[] password) {
+        byte[] salt = new byte[SALT_BYTES];
+        random.nextBytes(salt);
+        Base64.Encoder encoder = Base64.getEncoder();
+        return HASH_PREFIX + "$" + iterations + "$" + encoder.encodeToString(salt)
+               + "$" + encoder.encodeToString(pbkdf2(password, salt, iterations));
+    }
+
+    // Checks a password against a stored hash, comparing in constant time
+    private static boolean verify(char[] password, String storedHash) {
+        String[] parts = storedHash.split("\\$");
+        if (parts.length != 4 || !HASH_PREFIX.equals(parts[0])) {
+            return false;
+        }
+        try {
+            int hashIterations = Integer.parseInt(parts[1]);
+            byte[] salt = Base64.getDecoder().decode(parts[2]);
+            byte[] expected = Base64.getDecoder().decode(parts[3]);
+            return hashIterations > 0 && MessageDigest.isEqual(expected, pbkdf2(password, salt, hashIterations));
+        } catch (IllegalArgumentException e) {
+            return false;  // Not a hash this store wrote
+        }
+    }
+
+    // Returns the iterations a stored hash was made with, or 0 if it cannot be read
+    private static int iterationsOf(String storedHash) {
+        String[] parts = storedHash.split("\\$");
+        try {
+            return parts.length == 4 ? Integer.parseInt(parts[1]) : 0;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    // Derives the PBKDF2 key of a password
+    private static byte[] pbkdf2(char[] password, byte[] salt, int iterations) {
+        PBEKeySpec spec = new PBEKeySpec(password, salt, iterations, HASH_BITS);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(ALGORITHM + " is not available", e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+}
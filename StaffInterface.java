@@ -8,24 +8,37 @@ import java.awt.*;
 import java.io.*;
 // Import necessary utility classes for data structures and operations.
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Calendar;
+import java.util.concurrent.atomic.AtomicLong;
 
 // Define a class named "StaffInterface" that extends (or inherits from) JFrame, which represents a window in a GUI.
 public class StaffInterface extends JFrame {
     // Declare instance variables for the class.
-    private ArrayList<StaffAccount> staffAccounts;   // List to store staff account data.
+    private final VendingEngine engine;              // Engine of the machine being managed.
+    private StaffAccountStore staffAccounts;         // Staff accounts indexed by username.
     private JTextField usernameField;                // Text field for entering username.
     private JPasswordField passwordField;            // Password field for entering password.
     private JTextArea staffListArea;                 // Text area for displaying list of staff.
     private DefaultTableModel drinksTableModel;      // Table model for managing drink data.
     private JButton viewOrdersButton;                // Button to view all orders.
     private JButton generateReportButton;            // Button to generate reports.
-    private static final String STAFF_FILE = "staff.txt";  // Constant for the filename where staff data is stored.
 
-    // Constructor for the StaffInterface class.
+    // Constructor for the StaffInterface class, managing the machine in the working directory.
     public StaffInterface() {
-        staffAccounts = loadStaffAccounts();  // Load staff account data from the file.
+        this(VendingEngine.getDefault());
+    }
+
+    // Constructor for the staff interface of the given machine.
+    public StaffInterface(VendingEngine engine) {
+        this.engine = engine;
+        try {
+            staffAccounts = AsyncIo.callAndWait(StaffAccountStore::getDefault);  // Load staff account data from the file on the I/O thread.
+        } catch (Exception e) {
+            e.printStackTrace();  // Print the stack trace if an exception occurs.
+            JOptionPane.showMessageDialog(null, "Staff accounts could not be loaded.");
+            dispose();  // Close the current window.
+            return;
+        }
         if (!presentUserChoice()) {  // Present a dialog to the user for login or account creation. If unsuccessful, exit.
             return;
         }
@@ -40,16 +53,21 @@ public class StaffInterface extends JFrame {
         generateReportButton = new JButton("Generate Reports");
         generateReportButton.addActionListener(e -> generateReports());
 
+        // Create a button for the drinks that need restocking first and add an action listener to it.
+        JButton restockButton = new JButton("Restock Plan");
+        restockButton.addActionListener(e -> new RestockScreen(engine.getRestockPlanner()).setVisible(true));
+
         // Create a panel for reports buttons.
         JPanel reportsPanel = new JPanel();
         reportsPanel.add(viewOrdersButton);
         reportsPanel.add(generateReportButton);
+        reportsPanel.add(restockButton);
 
         // Create a back button and add an action listener to it.
         JButton backButton = new JButton("Back");
         backButton.addActionListener(e -> {
             this.dispose();  // Close the current window.
-            VendingMachine vendingMachine = new VendingMachine();  // Create an instance of the VendingMachine class.
+            VendingMachine vendingMachine = new VendingMachine(engine);  // Create an instance of the VendingMachine class.
             vendingMachine.setVisible(true);  // Make the vending machine window visible.
         });
 
@@ -75,7 +93,7 @@ public class StaffInterface extends JFrame {
         if (choice == JOptionPane.YES_OPTION) {  // If "Login" is chosen.
             boolean loggedIn = showLoginDialog();  // Show the login dialog and store the result.
             if (!loggedIn) {  // If login is unsuccessful.
-                VendingMachine.main(new String[]{});  // Start the main method of the VendingMachine class.
+                new VendingMachine(engine).setVisible(true);  // Go back to the window of this machine.
                 dispose();  // Close the current window.
                 return false;  // Return false indicating unsuccessful login.
             } else {
@@ -83,11 +101,11 @@ public class StaffInterface extends JFrame {
             }
         } else if (choice == JOptionPane.NO_OPTION) {  // If "Create New Account" is chosen.
             createNewAccount();  // Call the method to create a new account.
-            VendingMachine.main(new String[]{});  // Start the main method of the VendingMachine class.
+            new VendingMachine(engine).setVisible(true);  // Go back to the window of this machine.
             dispose();  // Close the current window.
             return false;  // Return false indicating that a new account was created.
         } else {  // If the dialog is closed or cancelled.
-            VendingMachine.main(new String[]{});  // Start the main method of the VendingMachine class.
+            new VendingMachine(engine).setVisible(true);  // Go back to the window of this machine.
             dispose();  // Close the current window.
             return false;  // Return false indicating that no action was taken.
         }
@@ -161,7 +179,7 @@ public class StaffInterface extends JFrame {
         JButton backButton = new JButton("Back");  // Create a back button.
         backButton.addActionListener(e -> {  // Add an action listener to the back button.
             this.dispose();  // Close the current window.
-            VendingMachine vendingMachine = new VendingMachine();  // Create an instance of the VendingMachine class.
+            VendingMachine vendingMachine = new VendingMachine(engine);  // Create an instance of the VendingMachine class.
             vendingMachine.setVisible(true);  // Make the vending machine window visible.
         });
 
@@ -181,14 +199,20 @@ public class StaffInterface extends JFrame {
     // Method to change the username of a staff account.
     private void changeUsername() {
         String oldUsername = JOptionPane.showInputDialog("Enter current username:");  // Prompt the user to enter the current username.
-        if (staffAccounts.stream().anyMatch(account -> account.getUsername().equals(oldUsername))) {  // Check if the entered username exists.
+        if (staffAccounts.contains(oldUsername)) {  // Check if the entered username exists.
             String newUsername = JOptionPane.showInputDialog("Enter new username:");  // Prompt the user to enter the new username.
-            staffAccounts.stream()  // Stream the list of staff accounts.
-                    .filter(account -> account.getUsername().equals(oldUsername))  // Filter accounts with the entered old username.
-                    .forEach(account -> account.setUsername(newUsername));  // Set the new username for the filtered accounts.
-            saveStaffAccounts();  // Save the updated list of staff accounts.
-            displayStaffAccounts();  // Display the updated list of staff accounts.
-            JOptionPane.showMessageDialog(this, "Username changed successfully!");  // Show a success message.
+            if (newUsername == null) {
+                return;  // The user cancelled.
+            }
+            // Rename the account and append the change to the file on the I/O thread.
+            AsyncIo.call(() -> staffAccounts.renameAccount(oldUsername, newUsername), renamed -> {
+                if (!renamed) {
+                    JOptionPane.showMessageDialog(this, "That username is already taken or not allowed.");  // Show an error message.
+                    return;
+                }
+                displayStaffAccounts();  // Display the updated list of staff accounts.
+                JOptionPane.showMessageDialog(this, "Username changed successfully!");  // Show a success message.
+            }, e -> JOptionPane.showMessageDialog(this, "The username could not be changed."));
         } else {
             JOptionPane.showMessageDialog(this, "Username not found.");  // Show an error message if the entered username is not found.
         }
@@ -203,25 +227,6 @@ public class StaffInterface extends JFrame {
         populateDrinksTable();  // Populate the table with drink data.
     }
 
-    // Method to load the list of staff accounts from the file.
-    private ArrayList<StaffAccount> loadStaffAccounts() {
-        ArrayList<StaffAccount> accounts = new ArrayList<>();  // Create an empty list for storing staff accounts.
-        try (BufferedReader reader = new BufferedReader(new FileReader(STAFF_FILE))) {  // Create a BufferedReader to read from the staff file.
-            String line;
-            while ((line = reader.readLine()) != null) {  // Read each line from the file.
-                String[] parts = line.split(",");  // Split the line by comma to get the username and password.
-                if (parts.length == 2) {  // Check if the line has both username and password.
-                    String username = parts[0];  // Get the username from the first part.
-                    String password = parts[1];  // Get the password from the second part.
-                    accounts.add(new StaffAccount(username, password));  // Create a new staff account and add it to the list.
-                }
-            }
-        } catch (IOException e) {
-            e.printStackTrace();  // Print the stack trace if an exception occurs.
-        }
-        return accounts;  // Return the loaded list of staff accounts.
-    }
-
     // Method to show the login dialog.
     private boolean showLoginDialog() {
         JPanel panel = new JPanel(new GridLayout(3, 2));  // Create a panel with a grid layout.
@@ -236,10 +241,10 @@ public class StaffInterface extends JFrame {
         int result = JOptionPane.showConfirmDialog(null, panel, "Login", JOptionPane.OK_CANCEL_OPTION);
         if (result == JOptionPane.OK_OPTION) {  // If the user clicks the OK button.
             String enteredUsername = loginUsernameField.getText();  // Get the entered username.
-            String enteredPassword = new String(loginPasswordField.getPassword());  // Get the entered password.
+            char[] enteredPassword = loginPasswordField.getPassword();  // Get the entered password.
             
             // Check if the entered username or password is empty.
-            if (enteredUsername.trim().isEmpty() || enteredPassword.trim().isEmpty()) {
+            if (enteredUsername.trim().isEmpty() || new String(enteredPassword).trim().isEmpty()) {
                 JOptionPane.showMessageDialog(this, "Both fields are required!");  // Show an error message.
                 return false;  // Return false indicating unsuccessful login.
             }
@@ -256,14 +261,15 @@ public class StaffInterface extends JFrame {
     }
 
     // Method to check if the entered username and password are valid.
-    private boolean isValidLogin(String username, String password) {
-        for (StaffAccount account : staffAccounts) {  // Loop through each staff account.
-            // Check if the account's username and password match the entered username and password.
-            if (account.getUsername().equals(username) && account.getPassword().equals(password)) {
-                return true;  // Return true indicating that the entered details are valid.
-            }
+    private boolean isValidLogin(String username, char[] password) {
+        // Look the account up by username and check the password against its salted hash.
+        // Hashing is slow on purpose and may update the file, so it runs on the I/O thread while the dialog waits.
+        try {
+            return AsyncIo.callAndWait(() -> staffAccounts.authenticate(username, password));
+        } catch (Exception e) {
+            e.printStackTrace();  // Print the stack trace if an exception occurs.
+            return false;
         }
-        return false;  // Return false indicating that the entered details are invalid.
     }
 
     // Method to create a new staff account.
@@ -280,10 +286,14 @@ public class StaffInterface extends JFrame {
             return;  // Exit the method.
         }
 
-        // Create a new staff account with the entered username and password and add it to the list.
-        staffAccounts.add(new StaffAccount(newUsername, newPassword));
-        saveStaffAccounts();  // Save the updated list of staff accounts to the file.
-        JOptionPane.showMessageDialog(this, "New account created successfully!");  // Show a success message.
+        // Create a new staff account with the entered username and password on the I/O thread; only a hash of the password is stored.
+        AsyncIo.call(() -> staffAccounts.createAccount(newUsername, newPassword.toCharArray()), created -> {
+            if (created) {
+                JOptionPane.showMessageDialog(null, "New account created successfully!");  // Show a success message.
+            } else {
+                JOptionPane.showMessageDialog(null, "That username is already taken or not allowed.");  // Show an error message.
+            }
+        }, e -> JOptionPane.showMessageDialog(null, "The account could not be created."));  // Show an error message.
     }
 
     // Empty method to populate the drinks table. This needs to be implemented for actual functionality.
@@ -291,86 +301,96 @@ public class StaffInterface extends JFrame {
 
     }
 
-    // Method to load the list of drinks from the file.
-    private ArrayList<Drink> loadDrinks() {
-        ArrayList<Drink> drinks = new ArrayList<>();  // Create an empty list for storing drinks.
-        return drinks;  // Return the loaded list of drinks.
-    }
-
-    // Method to save the list of staff accounts to the file.
-    private void saveStaffAccounts() {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(STAFF_FILE))) {  // Create a BufferedWriter to write to the staff file.
-            for (StaffAccount account : staffAccounts) {  // Loop through each staff account.
-                // Write the account's username and password to the file.
-                writer.write(account.getUsername() + "," + account.getPassword());
-                writer.newLine();  // Move to the next line.
-            }
-        } catch (IOException e) {
-            e.printStackTrace();  // Print the stack trace if an exception occurs.
-        }
+    // Method to get the list of drinks from the shared catalog, without reading the file again.
+    private java.util.List<Drink> loadDrinks() {
+        return engine.getDrinks();  // Return the shared list of drinks.
     }
 
     // Method to display the list of staff accounts in the staff list area.
     private void displayStaffAccounts() {
-        staffListArea.setText("Staff Accounts:\n");  // Set the initial text of the staff list area.
-        for (StaffAccount account : staffAccounts) {  // Loop through each staff account.
-            staffListArea.append(account.getUsername() + "\n");  // Append the account's username to the staff list area.
+        StringBuilder staffList = new StringBuilder("Staff Accounts:\n");  // Build the text once, even for long lists.
+        for (String username : staffAccounts.getUsernames()) {  // Loop through each staff account.
+            staffList.append(username).append("\n");  // Append the account's username to the staff list.
         }
+        staffListArea.setText(staffList.toString());
     }
 
     // Method to open the drink management interface.
     private void openDrinkManagementInterface() {
-        DrinkManagement drinkManagement = new DrinkManagement();  // Create an instance of the DrinkManagement class.
+        DrinkManagement drinkManagement = new DrinkManagement(engine);  // Create an instance of the DrinkManagement class.
         drinkManagement.setVisible(true);  // Make the drink management window visible.
     }
 
-    // Method to view all orders.
+    // Method to browse all orders.
     private void viewOrders() {
-        StringBuilder ordersText = new StringBuilder("All Orders:\n");  // Create a StringBuilder for storing order text.
-        try (BufferedReader reader = new BufferedReader(new FileReader("orders.txt"))) {  // Create a BufferedReader to read from the orders file.
-            String line;
-            while ((line = reader.readLine()) != null) {  // Read each line from the file.
-                ordersText.append(line).append("\n");  // Append the line to the orders text.
-            }
-        } catch (IOException e) {
-            e.printStackTrace();  // Print the stack trace if an exception occurs.
-        }
-        JOptionPane.showMessageDialog(this, ordersText.toString());  // Show a dialog with the orders text.
+        OrderBrowser orderBrowser = new OrderBrowser(engine.getOrderLog());  // Pages orders in from the indexed log.
+        orderBrowser.setVisible(true);  // Show the order browser window.
     }
 
-    // Method to generate reports.
+    // Method to generate reports from the incrementally maintained sales aggregates, without blocking the window.
     private void generateReports() {
-        Map<String, Integer> drinkCounts = new HashMap<>();  // Create a map for storing the count of each drink.
-        double highestSale = 0;  // Variable to store the highest sale amount.
-
-        try (BufferedReader reader = new BufferedReader(new FileReader("orders.txt"))) {  // Create a BufferedReader to read from the orders file.
-            String line;
-            while ((line = reader.readLine()) != null) {  // Read each line from the file.
-                if (line.contains(" x ")) {  // Check if the line contains drink order data.
-                    String[] parts = line.split(" x ");  // Split the line by " x " to get the drink name and quantity.
-                    String drinkName = parts[0].trim();  // Get the drink name.
-                    int quantity = Integer.parseInt(parts[1].split(" = ")[0].trim());  // Get the drink quantity.
-                    // Update the drink count in the map.
-                    drinkCounts.put(drinkName, drinkCounts.getOrDefault(drinkName, 0) + quantity);
-                } else if (line.contains("Total: ")) {  // Check if the line contains total sale data.
-                    double totalSale = Double.parseDouble(line.split(": ")[1].trim());  // Get the total sale amount.
-                    highestSale = Math.max(highestSale, totalSale);  // Update the highest sale amount if necessary.
-                }
-            }
-        } catch (IOException e) {
-            e.printStackTrace();  // Print the stack trace if an exception occurs.
+        // Read the orders and build the report on the I/O thread, then show it on the Swing thread.
+        generateReportButton.setEnabled(false);  // One report at a time.
+        AsyncIo.call(this::buildReport, report -> {
+            generateReportButton.setEnabled(true);
+            JOptionPane.showMessageDialog(this, report);  // Show a dialog with the report.
+        }, e -> {
+            generateReportButton.setEnabled(true);
+            JOptionPane.showMessageDialog(this, "The report could not be generated.");
+        });
+    }
+
+    // Method to build the report text; runs on the I/O thread.
+    private String buildReport() {
+        long start = System.nanoTime();  // Timed for the "reportGenerate" metric.
+        SalesReport salesReport = engine.getSalesReport();  // Aggregates are updated on every checkout.
+        String report = formatReport(salesReport.getMostPopularDrink(), salesReport.getBestSellerToday(),
+                                     salesReport.getHighestSale(), salesReport.getRevenuePerHour(startOfToday(), hoursSoFarToday()));
+        if (engine.getFleet() != null) {  // Add the totals of every machine of the fleet.
+            report += "\n" + buildFleetReport(engine.getFleet());
         }
 
-        // Find the most popular drink (the drink with the highest count).
-        String mostPopularDrink = drinkCounts.entrySet().stream()
-                                             .max(Map.Entry.comparingByValue())
-                                             .get().getKey();
+        Metrics.getDefault().timer("reportGenerate").record(System.nanoTime() - start);  // Time taken, without the dialog.
+        return report;
+    }
+
+    // Method to build the report over every machine of a fleet from their merged aggregates; runs on the I/O thread.
+    static String buildFleetReport(VendingFleet fleet) {
+        SalesCube sales = fleet.getMergedSales();  // Each machine's aggregates, merged by drink name.
+        return "All " + fleet.getMachineIds().size() + " Machines (" + fleet.getOrderCount() + " orders):\n"
+               + formatReport(sales.getBestSeller(), sales.getBestSellerToday(), fleet.getHighestSale(),
+                              sales.getRevenuePerHour(startOfToday(), hoursSoFarToday()));
+    }
 
+    // Method to format the report lines.
+    private static String formatReport(String mostPopularDrink, String bestSellerToday, double highestSale,
+                                       double[] revenuePerHour) {
         // Create a report string.
-        String report = "Most Popular Drink: " + mostPopularDrink + "\n";
+        String report = "Most Popular Drink: " + (mostPopularDrink != null ? mostPopularDrink : "None") + "\n";
+        report += "Best Seller Today: " + (bestSellerToday != null ? bestSellerToday : "None") + "\n";
         report += "Highest Amount Per Sales: " + highestSale + "\n";
+        report += "Revenue Per Hour Today:\n";
+        for (int hour = 0; hour < revenuePerHour.length; hour++) {
+            if (revenuePerHour[hour] > 0) {  // Only list the hours that had sales.
+                report += String.format("  %02d:00  %.2f%n", hour, revenuePerHour[hour]);
+            }
+        }
+        return report;
+    }
+
+    // Method to get the time of the last midnight.
+    static long startOfToday() {
+        Calendar today = Calendar.getInstance();
+        today.set(Calendar.HOUR_OF_DAY, 0);
+        today.set(Calendar.MINUTE, 0);
+        today.set(Calendar.SECOND, 0);
+        today.set(Calendar.MILLISECOND, 0);
+        return today.getTimeInMillis();
+    }
 
-        JOptionPane.showMessageDialog(this, report);  // Show a dialog with the report.
+    // Method to get the number of hours of today so far, the current one included.
+    static int hoursSoFarToday() {
+        return Calendar.getInstance().get(Calendar.HOUR_OF_DAY) + 1;
     }
 
     // The main method of the StaffInterface class.
@@ -388,11 +408,11 @@ public class StaffInterface extends JFrame {
 
 class StaffAccount {
     private String username;
-    private String password;
+    private String passwordHash;  // Salted hash written by StaffAccountStore, never the password itself
 
-    public StaffAccount(String username, String password) {
+    public StaffAccount(String username, String passwordHash) {
         this.username = username;
-        this.password = password;
+        this.passwordHash = passwordHash;
     }
 
     public void setUsername(String newUsername) {
@@ -403,24 +423,31 @@ class StaffAccount {
         return username;
     }
 
-    public String getPassword() {
-        return password;
+    public String getPasswordHash() {
+        return passwordHash;
     }
-    public void setPassword(String password) {
-        this.password = password;
+    public void setPasswordHash(String passwordHash) {
+        this.passwordHash = passwordHash;
     }
 
 }
 class Drink {
-    private String name;
-    private double price;
-    private int quantity;
-    private String imagePath;
+    private static final AtomicLong NEXT_ID = new AtomicLong();
+
+    // Identity of the drink for maps and carts; unlike the name and price it never changes
+    private final long id = NEXT_ID.incrementAndGet();
+    private volatile String name;
+    private volatile double price;
+    private volatile String imagePath;
+
+    // Stock on hand in the upper 32 bits and stock reserved by open checkouts in the lower 32 bits,
+    // packed together so both can be updated with a single compare-and-set.
+    private final AtomicLong stock = new AtomicLong();
 
     public Drink(String name, double price, int quantity, String imagePath) {
         this.name = name;
         this.price = price;
-        this.quantity = quantity;
+        this.stock.set(pack(quantity, 0));
         this.imagePath = imagePath;
     }
     public void setName(String name) {
@@ -438,8 +465,15 @@ class Drink {
         this.price = price;
     }
 
+    // Stock on hand, including units reserved by checkouts that have not completed yet
     public int getQuantity() {
-        return quantity;
+        return onHand(stock.get());
+    }
+
+    // Stock that can still be sold, i.e. on hand minus reserved
+    public int getAvailableQuantity() {
+        long current = stock.get();
+        return onHand(current) - reserved(current);
     }
     public void setImagePath(String imagePath) {
         this.imagePath = imagePath;
@@ -450,38 +484,72 @@ class Drink {
     }
 
     public void setQuantity(int quantity) {
-        this.quantity = quantity;
+        long current;
+        do {
+            current = stock.get();
+        } while (!stock.compareAndSet(current, pack(quantity, reserved(current))));
+    }
+
+    // Adds to the stock on hand (a negative delta removes stock), keeping reservations intact
+    public void adjustQuantity(int delta) {
+        long current;
+        do {
+            current = stock.get();
+        } while (!stock.compareAndSet(current, pack(onHand(current) + delta, reserved(current))));
+    }
+
+    // Sets aside stock for a checkout; fails without changing anything if not enough is available
+    public boolean reserve(int quantity) {
+        long current;
+        do {
+            current = stock.get();
+            if (quantity <= 0 || onHand(current) - reserved(current) < quantity) {
+                return false;
+            }
+        } while (!stock.compareAndSet(current, pack(onHand(current), reserved(current) + quantity)));
+        return true;
     }
 
-    public static ArrayList<Drink> loadDrinks() {
-        ArrayList<Drink> drinks = new ArrayList<>();
-        try (BufferedReader reader = new BufferedReader(new FileReader("drinks.txt"))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split(",");
-                if (parts.length == 4) {
-                    String name = parts[0];
-                    double price = Double.parseDouble(parts[1]);
-                    int quantity = Integer.parseInt(parts[2]);
-                    String imagePath = parts[3];
-                    drinks.add(new Drink(name, price, quantity, imagePath));
-                }
-            }
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
-        return drinks;
+    // Gives reserved stock back, for example when a checkout is cancelled
+    public void releaseReservation(int quantity) {
+        long current;
+        do {
+            current = stock.get();
+        } while (!stock.compareAndSet(current, pack(onHand(current), Math.max(0, reserved(current) - quantity))));
     }
 
-    public static void saveDrinks(ArrayList<Drink> drinksList) {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter("drinks.txt"))) {
-            for (Drink drink : drinksList) {
-                String line = drink.getName() + "," + drink.getPrice() + "," + drink.getQuantity() + "," + drink.getImagePath();
-                writer.write(line);
-                writer.newLine();
-            }
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+    // Turns reserved stock into a sale, removing it from the stock on hand
+    public void commitReservation(int quantity) {
+        long current;
+        do {
+            current = stock.get();
+        } while (!stock.compareAndSet(current, pack(onHand(current) - quantity, Math.max(0, reserved(current) - quantity))));
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof Drink && ((Drink) other).id == id;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(id);
+    }
+
+    private static long pack(int onHand, int reserved) {
+        return ((long) onHand << 32) | (reserved & 0xFFFFFFFFL);
+    }
+
+    private static int onHand(long stock) {
+        return (int) (stock >> 32);
+    }
+
+    private static int reserved(long stock) {
+        return (int) stock;
+    }
+
+    // Returns the drinks of the shared catalog, which is loaded from drinks.txt and the inventory journal only once
+    public static ArrayList<Drink> loadDrinks() {
+        return new ArrayList<>(VendingEngine.getDefault().getDrinks());
     }
 }
@@ -0,0 +1,238 @@
+// Importing necessary packages for image handling
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import javax.imageio.ImageIO;
+import javax.swing.ImageIcon;
+import javax.swing.SwingUtilities;
+
+// Importing necessary packages for file operations
+import java.io.File;
+import java.io.IOException;
+
+// Importing necessary packages for collections and background work
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+// Shared cache of scaled drink images that are decoded on a background thread.
+// Entries are keyed by image path, file modification time and target size, and the least
+// recently used ones are evicted once the decoded pixels exceed MAX_BYTES. Files that are
+// missing or cannot be decoded are cached as misses so they are not retried on every refresh.
+class ThumbnailCache {
+
+    // Upper bound on the memory held by decoded thumbnails (4 bytes per ARGB pixel)
+    static final long MAX_BYTES = 32L * 1024 * 1024;
+
+    // Number of background threads decoding images
+    private static final int LOADER_THREADS = 2;
+
+    // Width used in keys of thumbnails that keep the aspect ratio of the image
+    private static final int FIT_WIDTH = 0;
+
+    // Decoding metrics
+    private static final LatencyHistogram DECODE_TIME = Metrics.getDefault().timer("imageDecode");
+    private static final Metrics.Counter MISSING_IMAGES = Metrics.getDefault().counter("imageMissing");
+
+    // Marker stored for images that could not be loaded
+    private static final ImageIcon MISSING = new ImageIcon();
+
+    // Cache shared by every screen
+    private static ThumbnailCache shared;
+
+    // Decoded thumbnails in least recently used order
+    private final LinkedHashMap<Key, ImageIcon> icons = new LinkedHashMap<>(16, 0.75f, true);
+    // Callbacks waiting for thumbnails that are still being decoded
+    private final Map<Key, List<Consumer<ImageIcon>>> pending = new HashMap<>();
+    // Placeholders shown while a thumbnail is loading, one per size
+    private final Map<Long, ImageIcon> placeholders = new HashMap<>();
+    private final ExecutorService loader;
+    private long cachedBytes;  // Memory held by the decoded thumbnails in the cache
+
+    // Creates a cache with its own background loader threads
+    ThumbnailCache() {
+        loader = Executors.newFixedThreadPool(LOADER_THREADS, runnable -> {
+            Thread thread = new Thread(runnable, "thumbnail-loader");
+            thread.setDaemon(true);  // Do not keep the application alive for pending decodes
+            return thread;
+        });
+    }
+
+    // Returns the cache shared by every screen
+    static synchronized ThumbnailCache getShared() {
+        if (shared == null) {
+            shared = new ThumbnailCache();
+            ThumbnailCache cache = shared;
+            Metrics.getDefault().gauge("imageCacheBytes", () -> cache.getCachedBytes());
+        }
+        return shared;
+    }
+
+    // Returns the thumbnail of the image scaled to the given size, a placeholder while it is being
+    // decoded, or null if the image cannot be loaded. When a placeholder is returned the listener is
+    // called on the Swing thread with the real thumbnail (or null) once decoding has finished.
+    synchronized ImageIcon getThumbnail(String imagePath, int width, int height, Consumer<ImageIcon> listener) {
+        return getIcon(imagePath, width, height, listener);
+    }
+
+    // Like getThumbnail, but keeps the aspect ratio and only scales images taller than maxHeight down
+    synchronized ImageIcon getFittedThumbnail(String imagePath, int maxHeight, Consumer<ImageIcon> listener) {
+        return getIcon(imagePath, FIT_WIDTH, maxHeight, listener);
+    }
+
+    // Returns the memory held by the decoded thumbnails
+    synchronized long getCachedBytes() {
+        return cachedBytes;
+    }
+
+    // Tells whether an icon returned by this cache is a placeholder for a thumbnail still loading
+    synchronized boolean isPlaceholder(ImageIcon icon) {
+        return icon != null && placeholders.containsValue(icon);
+    }
+
+    // Looks an icon up in the cache and schedules decoding on a miss
+    private ImageIcon getIcon(String imagePath, int width, int height, Consumer<ImageIcon> listener) {
+        if (imagePath == null) {
+            return null;
+        }
+        File file = new File(imagePath);
+        Key key = new Key(imagePath, file.lastModified(), width, height);
+
+        ImageIcon icon = icons.get(key);
+        if (icon != null) {
+            return icon == MISSING ? null : icon;
+        }
+
+        List<Consumer<ImageIcon>> listeners = pending.get(key);
+        if (listeners == null) {
+            listeners = new ArrayList<>();
+            pending.put(key, listeners);
+            loader.execute(() -> load(key, file));
+        }
+        if (listener != null) {
+            listeners.add(listener);
+        }
+        return placeholder(width == FIT_WIDTH ? height : width, height);
+    }
+
+    // Decodes and scales an image on a loader thread and hands it to the waiting listeners
+    private void load(Key key, File file) {
+        ImageIcon icon = MISSING;
+        long start = System.nanoTime();
+        try {
+            BufferedImage image = file.isFile() ? ImageIO.read(file) : null;
+            if (image != null) {
+                icon = new ImageIcon(scale(image, key.width, key.height));
+            }
+        } catch (IOException e) {
+            // Cached as missing below, so the failure is not repeated on every refresh
+        }
+        if (icon == MISSING) {
+            MISSING_IMAGES.increment();
+        } else {
+            DECODE_TIME.record(System.nanoTime() - start);
+        }
+
+        List<Consumer<ImageIcon>> listeners;
+        synchronized (this) {
+            put(key, icon);
+            listeners = pending.remove(key);
+        }
+        ImageIcon result = icon == MISSING ? null : icon;
+        SwingUtilities.invokeLater(() -> {
+            for (Consumer<ImageIcon> listener : listeners) {
+                listener.accept(result);
+            }
+        });
+    }
+
+    // Adds an entry and evicts the least recently used ones beyond the memory bound
+    private void put(Key key, ImageIcon icon) {
+        ImageIcon previous = icons.put(key, icon);
+        cachedBytes += bytes(icon) - (previous != null ? bytes(previous) : 0);
+        Iterator<Map.Entry<Key, ImageIcon>> eldest = icons.entrySet().iterator();
+        while (cachedBytes > MAX_BYTES && eldest.hasNext()) {
+            Map.Entry<Key, ImageIcon> evicted = eldest.next();
+            if (evicted.getKey().equals(key)) {
+                break;  // Never evict the entry that was just added
+            }
+            cachedBytes -= bytes(evicted.getValue());
+            eldest.remove();
+        }
+    }
+
+    // Memory used by a cached icon (4 bytes per ARGB pixel, a token amount for misses)
+    private static long bytes(ImageIcon icon) {
+        return icon == MISSING ? 64 : 4L * icon.getIconWidth() * icon.getIconHeight();
+    }
+
+    // Returns a light grey box of the given size shown while a thumbnail loads
+    private ImageIcon placeholder(int width, int height) {
+        long size = ((long) width << 32) | height;
+        ImageIcon placeholder = placeholders.get(size);
+        if (placeholder == null) {
+            BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+            Graphics2D graphics = image.createGraphics();
+            graphics.setColor(new Color(220, 220, 220));
+            graphics.fillRect(0, 0, width, height);
+            graphics.dispose();
+            placeholder = new ImageIcon(image);
+            placeholders.put(size, placeholder);
+        }
+        return placeholder;
+    }
+
+    // Scales an image to the given size once, so painting never has to rescale it
+    private static BufferedImage scale(BufferedImage image, int width, int height) {
+        if (width == FIT_WIDTH) {
+            if (image.getHeight() <= height) {
+                return image;  // Small enough already
+            }
+            width = Math.max(1, image.getWidth() * height / image.getHeight());
+        }
+        BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = scaled.createGraphics();
+        graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        graphics.drawImage(image, 0, 0, width, height, null);
+        graphics.dispose();
+        return scaled;
+    }
+
+    // Identifies one scaled version of one revision of an image file
+    private static final class Key {
+        final String path;
+        final long lastModified;
+        final int width;
+        final int height;
+
+        Key(String path, long lastModified, int width, int height) {
+            this.path = path;
+            this.lastModified = lastModified;
+            this.width = width;
+            this.height = height;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) other;
+            return path.equals(key.path) && lastModified == key.lastModified
+                    && width == key.width && height == key.height;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(path, lastModified, width, height);
+        }
+    }
+}
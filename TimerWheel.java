@@ -0,0 +1,156 @@
+// Hashed timer wheel for large numbers of timeouts that are mostly cancelled before they fire.
+// Time is cut into ticks of a fixed length and the wheel has a power-of-two number of buckets. A
+// timeout goes into the bucket of the tick it is due in, with the number of full turns of the wheel
+// still to wait. Scheduling and cancelling a timeout are O(1) list operations. Each tick visits only
+// the one bucket whose turn it is, so the cost per tick does not grow with the number of timeouts.
+// Timeouts fire up to one tick late, never early. The tasks run on the wheel's own daemon thread,
+// which starts with the first timeout, so they must be short.
+class TimerWheel {
+
+    private final String name;         // Name of the ticking thread
+    private final long tickMillis;
+    private final Bucket[] buckets;
+    private final int mask;            // Bucket count - 1, to turn a tick number into a bucket index
+
+    private long startMillis;          // When tick 0 started
+    private long currentTick;          // Next tick to process
+    private int pendingCount;          // Timeouts scheduled and neither fired nor cancelled
+    private Thread thread;             // Started with the first timeout
+
+    // Creates a wheel with the given tick length and number of buckets (rounded up to a power of two)
+    TimerWheel(String name, long tickMillis, int bucketCount) {
+        this.name = name;
+        this.tickMillis = Math.max(1, tickMillis);
+        int size = Integer.highestOneBit(Math.max(1, bucketCount - 1)) << 1;
+        buckets = new Bucket[size];
+        for (int i = 0; i < size; i++) {
+            buckets[i] = new Bucket();
+        }
+        mask = size - 1;
+    }
+
+    // Runs the task once the delay has passed, unless the returned timeout is cancelled first
+    synchronized Timeout schedule(Runnable task, long delayMillis) {
+        if (thread == null) {
+            startMillis = System.currentTimeMillis();
+            currentTick = 0;
+            thread = new Thread(this::run, name);
+            thread.setDaemon(true);
+            thread.start();
+        }
+        long elapsedTicks = (System.currentTimeMillis() - startMillis) / tickMillis;
+        // Round the delay up to whole ticks so that the task never runs early
+        long dueTick = Math.max(currentTick, elapsedTicks + (Math.max(0, delayMillis) + tickMillis - 1) / tickMillis);
+        Timeout timeout = new Timeout(task);
+        timeout.rounds = (dueTick - currentTick) / buckets.length;
+        buckets[(int) (dueTick & mask)].add(timeout);
+        pendingCount++;
+        return timeout;
+    }
+
+    // Returns the number of timeouts waiting to fire
+    synchronized int getPendingCount() {
+        return pendingCount;
+    }
+
+    // Body of the ticking thread
+    private void run() {
+        while (true) {
+            Timeout expired;
+            synchronized (this) {
+                long tickStart = startMillis + currentTick * tickMillis;
+                long wait;
+                while ((wait = tickStart + tickMillis - System.currentTimeMillis()) > 0) {
+                    try {
+                        wait(wait);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                expired = buckets[(int) (currentTick & mask)].expire();
+                currentTick++;
+            }
+            // Run the expired tasks outside the lock so they can schedule or cancel other timeouts
+            for (Timeout timeout = expired; timeout != null; timeout = timeout.next) {
+                try {
+                    timeout.task.run();
+                } catch (RuntimeException e) {
+                    e.printStackTrace();  // One failing task must not stop the others
+                }
+            }
+        }
+    }
+
+    // A scheduled task that can be cancelled until it fires
+    final class Timeout {
+        private final Runnable task;
+        private long rounds;        // Turns of the wheel left before it is due
+        private Bucket bucket;      // Bucket holding it, null once fired or cancelled
+        private Timeout previous;
+        private Timeout next;
+
+        private Timeout(Runnable task) {
+            this.task = task;
+        }
+
+        // Stops the task from running; returns false if it already ran or was cancelled
+        boolean cancel() {
+            synchronized (TimerWheel.this) {
+                if (bucket == null) {
+                    return false;
+                }
+                bucket.remove(this);
+                pendingCount--;
+                return true;
+            }
+        }
+    }
+
+    // Doubly linked list of the timeouts hashed to one slot of the wheel
+    private final class Bucket {
+        private Timeout head;
+
+        void add(Timeout timeout) {
+            timeout.bucket = this;
+            timeout.previous = null;
+            timeout.next = head;
+            if (head != null) {
+                head.previous = timeout;
+            }
+            head = timeout;
+        }
+
+        void remove(Timeout timeout) {
+            if (timeout.previous != null) {
+                timeout.previous.next = timeout.next;
+            } else {
+                head = timeout.next;
+            }
+            if (timeout.next != null) {
+                timeout.next.previous = timeout.previous;
+            }
+            timeout.bucket = null;
+            timeout.previous = null;
+            timeout.next = null;
+        }
+
+        // Takes out the timeouts due in this turn and returns them as a list linked through next
+        Timeout expire() {
+            Timeout expired = null;
+            Timeout timeout = head;
+            while (timeout != null) {
+                Timeout following = timeout.next;
+                if (timeout.rounds <= 0) {
+                    remove(timeout);
+                    pendingCount--;
+                    timeout.next = expired;
+                    expired = timeout;
+                } else {
+                    timeout.rounds--;
+                }
+                timeout = following;
+            }
+            return expired;
+        }
+    }
+}
@@ -0,0 +1,395 @@
+// Importing necessary packages for file operations
+import java.io.File;
+import java.io.IOException;
+
+// Importing necessary packages for list and map data structures
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Headless, thread-safe core of the vending machine: catalog, carts and checkout.
+// Stock is held in lock-free per-drink counters (see Drink.reserve), so any number of terminals can
+// check out concurrently without overselling and without stock ever going negative. The Swing
+// screens only collect input and display results; every change goes through this class.
+// A cart holds its stock from the moment a drink is added. The hold lapses when the cart is left alone
+// for the cart time-to-live, set in seconds with the system property vending.cart.ttlSeconds (default 300).
+// The expiries of all carts share one timer wheel, so open carts cost nothing until one of them lapses.
+class VendingEngine {
+
+    // Time an untouched cart keeps its stock unless the system property overrides it
+    static final long DEFAULT_CART_TTL_SECONDS = 300;
+
+    // Engine over the files in the working directory shared by every screen
+    private static VendingEngine defaultEngine;
+
+    // Checkout metrics, shared by every engine
+    private static final LatencyHistogram CHECKOUT_TIME = Metrics.getDefault().timer("checkout");
+    private static final Metrics.Counter ORDERS = Metrics.getDefault().counter("orders");
+    private static final Metrics.Counter SOLD_OUT = Metrics.getDefault().counter("soldOut");
+    private static final Metrics.Counter CANCELLED = Metrics.getDefault().counter("cancelled");
+    private static final Metrics.Counter CARTS_EXPIRED = Metrics.getDefault().counter("cartsExpired");
+    private static final Metrics.Counter ORDERS_RECOVERED = Metrics.getDefault().counter("ordersRecovered");
+
+    // Expiry of the stock held by the carts of every engine: 512 quarter-second ticks per turn of the wheel
+    private static final TimerWheel CART_EXPIRY = new TimerWheel("cart-expiry", 250, 512);
+
+    static {
+        Metrics.getDefault().gauge("cartsHeld", CART_EXPIRY::getPendingCount);
+    }
+
+    private final DrinkCatalog catalog;      // Drinks, persisted through the inventory journal
+    private final OrderLog orderLog;         // Persists completed orders
+    private final SalesReport salesReport;   // Aggregates maintained on every checkout
+    private final RestockPlanner restockPlanner;  // Drinks ordered by expected stockout
+    private final long cartTtlMillis;        // Time an untouched cart keeps its stock
+    private final File dataDirectory;        // Directory holding the files of this machine
+    private final VendingFleet fleet;        // Fleet this machine belongs to, or null when it runs alone
+
+    // Creates an engine over the data files in the given directory, without watching them for outside edits
+    VendingEngine(File dataDirectory) {
+        this(dataDirectory, false);
+    }
+
+    // Creates an engine over the data files in the given directory
+    VendingEngine(File dataDirectory, boolean watchCatalog) {
+        this(dataDirectory, watchCatalog, null);
+    }
+
+    // Creates an engine over the data files in the given directory for a machine of the given fleet
+    VendingEngine(File dataDirectory, boolean watchCatalog, VendingFleet fleet) {
+        this.dataDirectory = dataDirectory;
+        this.fleet = fleet;
+        catalog = new DrinkCatalog(BinaryCatalog.snapshotIn(dataDirectory),
+                                   new File(dataDirectory, InventoryJournal.JOURNAL_FILE), watchCatalog);
+        orderLog = new OrderLog(new File(dataDirectory, OrderLog.ORDERS_FILE),
+                                new File(dataDirectory, OrderLog.INDEX_FILE));
+        salesReport = new SalesReport(orderLog, new File(dataDirectory, SalesReport.CHECKPOINT_FILE));
+        recoverSales();
+        restockPlanner = new RestockPlanner(catalog);
+        restockPlanner.seed(salesReport, System.currentTimeMillis());
+        cartTtlMillis = Long.getLong("vending.cart.ttlSeconds", DEFAULT_CART_TTL_SECONDS) * 1000;
+    }
+
+    // Deducts the stock of orders that reached the order log but not the inventory journal, which
+    // happens when the process stops in the middle of a checkout. Each replayed sale is journaled with
+    // its order number, so it is applied once however often the process restarts.
+    private void recoverSales() {
+        try {
+            int orderCount = orderLog.size();
+            if (catalog.getOrdersApplied() < 0) {
+                // Files written before sales carried order numbers; take the stock to match the whole log
+                catalog.recordOrdersApplied(orderCount);
+                return;
+            }
+            if (catalog.getOrdersApplied() > orderCount) {
+                System.err.println("The inventory reflects " + catalog.getOrdersApplied() + " orders but the order log holds "
+                                   + orderCount + "; orders that were not written yet were lost");
+            }
+            for (int orderNumber : catalog.getMissingOrders(orderCount)) {
+                // The summary lines are parsed the same way the sales report counts them
+                String orderSummary = orderLog.read(orderNumber);
+                SalesCube order = new SalesCube();
+                order.addOrder(orderSummary, 0, orderSummary.length(), SalesCube.UNKNOWN_TIME);
+                Map<Drink, Integer> sold = new LinkedHashMap<>();
+                for (int id = 0; id < order.getDrinkCount(); id++) {
+                    Drink drink = findDrink(order.getName(id));
+                    if (drink != null) {
+                        sold.merge(drink, (int) order.getUnits(id), Integer::sum);
+                    }
+                }
+                for (Map.Entry<Drink, Integer> line : sold.entrySet()) {
+                    line.getKey().adjustQuantity(-line.getValue());
+                }
+                catalog.recordSale(sold, orderNumber);
+                ORDERS_RECOVERED.increment();
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    // Returns the first drink of the catalog with the given name, or null
+    private Drink findDrink(String name) {
+        for (Drink drink : catalog.getDrinks()) {
+            if (drink.getName().equals(name)) {
+                return drink;
+            }
+        }
+        return null;
+    }
+
+    // Returns the engine over the files in the working directory, which picks up outside edits of the catalog
+    static synchronized VendingEngine getDefault() {
+        if (defaultEngine == null) {
+            defaultEngine = new VendingEngine(new File("."), true);
+            defaultEngine.publishStockLevels();
+        }
+        return defaultEngine;
+    }
+
+    // Publishes the available stock of every drink, and their total, as gauges. A fleet machine adds
+    // its id to the gauge names, e.g. "stock.lobby", so the machines do not replace each other's gauges.
+    void publishStockLevels() {
+        Metrics metrics = Metrics.getDefault();
+        String suffix = fleet != null ? "." + dataDirectory.getName() : "";
+        metrics.gauges("stock" + suffix, () -> {
+            Map<String, Integer> levels = new LinkedHashMap<>();
+            for (Drink drink : catalog.getDrinks()) {
+                levels.put(drink.getName(), drink.getAvailableQuantity());
+            }
+            return levels;
+        });
+        metrics.gauge("stockTotal" + suffix, () -> {
+            long total = 0;
+            for (Drink drink : catalog.getDrinks()) {
+                total += drink.getAvailableQuantity();
+            }
+            return total;
+        });
+    }
+
+    // Returns the directory holding the files of this machine
+    File getDataDirectory() {
+        return dataDirectory;
+    }
+
+    // Returns the fleet this machine belongs to, or null when it runs alone
+    VendingFleet getFleet() {
+        return fleet;
+    }
+
+    // Returns a read-only view of the catalog
+    List<Drink> getDrinks() {
+        return catalog.getDrinks();
+    }
+
+    // Returns the catalog, for screens that want to be told about changes
+    DrinkCatalog getCatalog() {
+        return catalog;
+    }
+
+    // Returns the order log behind this engine
+    OrderLog getOrderLog() {
+        return orderLog;
+    }
+
+    // Returns the sales aggregates behind this engine
+    SalesReport getSalesReport() {
+        return salesReport;
+    }
+
+    // Returns the restock planner behind this engine
+    RestockPlanner getRestockPlanner() {
+        return restockPlanner;
+    }
+
+    // Starts an empty cart
+    Cart newCart() {
+        return new Cart();
+    }
+
+    // Adds units of a drink to the cart and holds them at once, so no other customer can buy them meanwhile.
+    // Lines whose hold expired are held again first. Every call restarts the cart time-to-live.
+    // Returns the drink that is short, either an expired line or the new one, without adding the drink;
+    // returns null on success.
+    Drink addToCart(Cart cart, Drink drink, int quantity) {
+        synchronized (cart) {
+            Drink shortDrink = reserve(cart);
+            if (shortDrink != null) {
+                return shortDrink;
+            }
+            if (!drink.reserve(quantity)) {
+                SOLD_OUT.increment();
+                return drink;
+            }
+            cart.lines.merge(drink, quantity, Integer::sum);
+            holdUntilExpiry(cart);
+            catalog.reservationsChanged(Collections.singleton(drink));
+            return null;
+        }
+    }
+
+    // Reserves the stock for every line of the cart, or nothing at all if any line is short.
+    // The stock is held until the cart is committed or cancelled, or left alone for the cart time-to-live.
+    // Returns the drink that could not be reserved, or null on success.
+    Drink reserve(Cart cart) {
+        synchronized (cart) {
+            if (cart.reserved) {
+                holdUntilExpiry(cart);
+                return null;
+            }
+            List<Map.Entry<Drink, Integer>> done = new ArrayList<>();
+            for (Map.Entry<Drink, Integer> line : cart.lines.entrySet()) {
+                if (!line.getKey().reserve(line.getValue())) {
+                    for (Map.Entry<Drink, Integer> reservedLine : done) {  // Roll back the lines already held
+                        reservedLine.getKey().releaseReservation(reservedLine.getValue());
+                    }
+                    SOLD_OUT.increment();
+                    return line.getKey();
+                }
+                done.add(line);
+            }
+            cart.reserved = true;
+            cart.expired = false;
+            holdUntilExpiry(cart);
+            catalog.reservationsChanged(cart.lines.keySet());
+            return null;
+        }
+    }
+
+    // Completes the checkout of a reserved cart: deducts the stock, persists it and records the order.
+    // Returns the order summary that was saved.
+    String commit(Cart cart) throws IOException {
+        synchronized (cart) {
+            if (!cart.reserved && (!cart.expired || reserve(cart) != null)) {
+                throw new IllegalStateException(cart.expired ? "The stock of the expired cart is no longer available"
+                                                             : "Cart must be reserved before it is committed");
+            }
+            long start = System.nanoTime();
+            stopExpiry(cart);
+            String orderSummary = cart.getSummary();
+
+            // The order is written before its stock is taken. If the write fails, the cart keeps its
+            // lines and its hold, so no units are lost and the checkout can be tried again.
+            long orderTime = System.currentTimeMillis();
+            int orderNumber;
+            try {
+                orderNumber = orderLog.append(orderSummary, orderTime);
+            } catch (IOException | RuntimeException e) {
+                holdUntilExpiry(cart);
+                throw e;
+            }
+            Map<Drink, Integer> sold = new LinkedHashMap<>(cart.lines);
+            for (Map.Entry<Drink, Integer> line : sold.entrySet()) {
+                line.getKey().commitReservation(line.getValue());
+            }
+            cart.lines.clear();
+            cart.reserved = false;
+
+            // If the process stops before the sale is journaled, the next start finds the order
+            // missing from the journal and deducts its stock then.
+            catalog.recordSale(sold, orderNumber);  // One journal line for the whole cart
+            restockPlanner.recordSale(sold, orderTime);
+            salesReport.orderPlaced(orderNumber, orderTime, orderSummary);
+            CHECKOUT_TIME.record(System.nanoTime() - start);
+            ORDERS.increment();
+            return orderSummary;
+        }
+    }
+
+    // Releases the stock held by a reserved cart and keeps its lines for another attempt
+    void cancel(Cart cart) {
+        synchronized (cart) {
+            if (!cart.reserved) {
+                return;
+            }
+            release(cart);
+            CANCELLED.increment();
+        }
+    }
+
+    // Restarts the time-to-live of a reserved cart
+    private void holdUntilExpiry(Cart cart) {
+        stopExpiry(cart);
+        long generation = ++cart.holdGeneration;
+        cart.expiry = CART_EXPIRY.schedule(() -> expire(cart, generation), cartTtlMillis);
+    }
+
+    // Cancels the pending expiry of a cart, if any
+    private static void stopExpiry(Cart cart) {
+        if (cart.expiry != null) {
+            cart.expiry.cancel();
+            cart.expiry = null;
+        }
+    }
+
+    // Releases the stock of a cart left alone for the time-to-live, unless it was touched since the
+    // expiry was scheduled. The lines stay in the cart and are held again on the next add or checkout.
+    private void expire(Cart cart, long generation) {
+        synchronized (cart) {
+            if (!cart.reserved || cart.holdGeneration != generation) {
+                return;
+            }
+            release(cart);
+            cart.expired = true;
+            CARTS_EXPIRED.increment();
+        }
+    }
+
+    // Gives back the stock held by a reserved cart; the caller holds the cart lock
+    private void release(Cart cart) {
+        stopExpiry(cart);
+        for (Map.Entry<Drink, Integer> line : cart.lines.entrySet()) {
+            line.getKey().releaseReservation(line.getValue());
+        }
+        cart.reserved = false;
+        catalog.reservationsChanged(cart.lines.keySet());
+    }
+
+    // Adds a new drink to the end of the catalog
+    void addDrink(Drink drink) {
+        catalog.addDrink(drink);
+    }
+
+    // Renames the drink at the given catalog position
+    void renameDrink(int index, String name) {
+        catalog.renameDrink(index, name);
+    }
+
+    // Changes the price of the drink at the given catalog position
+    void changePrice(int index, double price) {
+        catalog.changePrice(index, price);
+    }
+
+    // Sets the stock on hand of the drink at the given catalog position
+    void changeQuantity(int index, int quantity) {
+        catalog.changeQuantity(index, quantity);
+    }
+
+    // Changes the image of the drink at the given catalog position
+    void changeImage(int index, String imagePath) {
+        catalog.changeImage(index, imagePath);
+    }
+
+    // Drinks and quantities a customer intends to buy
+    static class Cart {
+        private final LinkedHashMap<Drink, Integer> lines = new LinkedHashMap<>();
+        private boolean reserved;  // Whether the stock of every line is currently held
+        private boolean expired;   // Whether the hold lapsed since the cart was last reserved
+        private long holdGeneration;         // Counts the holds, so a stale expiry can tell it was superseded
+        private TimerWheel.Timeout expiry;   // Pending release of the held stock, null when nothing is held
+
+        // Sets the quantity of a drink in the cart; not allowed while the cart is reserved
+        synchronized void put(Drink drink, int quantity) {
+            if (reserved) {
+                throw new IllegalStateException("Cart is reserved for checkout");
+            }
+            lines.put(drink, quantity);
+        }
+
+        // Returns a copy of the cart lines
+        synchronized Map<Drink, Integer> getLines() {
+            return new LinkedHashMap<>(lines);
+        }
+
+        synchronized boolean isEmpty() {
+            return lines.isEmpty();
+        }
+
+        // Builds the order summary in the format stored in orders.txt
+        synchronized String getSummary() {
+            StringBuilder orderSummary = new StringBuilder(OrderLog.RECORD_MARKER + "\n");
+            double total = 0;
+            for (Map.Entry<Drink, Integer> entry : lines.entrySet()) {
+                double cost = entry.getKey().getPrice() * entry.getValue();
+                total += cost;
+                orderSummary.append(entry.getKey().getName()).append(" x ").append(entry.getValue())
+                            .append(" = ").append(cost).append("\n");
+            }
+            orderSummary.append("\nTotal: ").append(total);
+            return orderSummary.toString();
+        }
+    }
+}
@@ -0,0 +1,141 @@
+// Importing necessary packages for file operations
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+// Importing necessary packages for list and map data structures
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+// Hosts many logical vending machines in one process, one per subdirectory of the fleet directory.
+// Each machine is a VendingEngine over its own shard of files: drinks.txt (or drinks.bin) with its
+// journal, orders.txt with its index, and the report checkpoint. The machines share no files and no
+// locks, so the locking is striped per machine and a checkout on one never waits for another.
+// Machines are opened on first use; opening one only locks its own slot of the machine map.
+// Fleet reports merge the sales aggregates of every machine, each read under that machine's lock.
+// Each machine publishes its own stock gauges. The AsyncIo thread and the cart expiry wheel are
+// shared by the whole process: the screens already queue their file work on one thread, and a
+// single wheel expires the carts of every machine at the same O(1) cost per tick.
+//
+// Layout: <fleet directory>/<machine id>/drinks.txt, orders.txt, ...
+class VendingFleet {
+
+    // Machine ids are used as directory names, so they are limited to a safe set of characters
+    private static final Pattern MACHINE_ID = Pattern.compile("[A-Za-z0-9_-][A-Za-z0-9._-]*");
+
+    private final File directory;  // Holds one subdirectory per machine
+    private final ConcurrentHashMap<String, VendingEngine> machines = new ConcurrentHashMap<>();
+
+    // Creates a fleet over the machine directories under the given directory
+    VendingFleet(File directory) {
+        this.directory = directory;
+        Metrics.getDefault().gauge("fleetMachines", machines::size);
+    }
+
+    // Returns the fleet directory
+    File getDirectory() {
+        return directory;
+    }
+
+    // Tells whether a machine id can be used as a directory name
+    static boolean isValidMachineId(String machineId) {
+        return machineId != null && MACHINE_ID.matcher(machineId).matches();
+    }
+
+    // Returns the ids of the machines in the fleet directory and of those opened since, sorted
+    List<String> getMachineIds() {
+        TreeSet<String> ids = new TreeSet<>(machines.keySet());
+        File[] children = directory.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                if (child.isDirectory() && isValidMachineId(child.getName())
+                        && BinaryCatalog.snapshotIn(child).isFile()) {
+                    ids.add(child.getName());
+                }
+            }
+        }
+        return new ArrayList<>(ids);
+    }
+
+    // Returns the engine of a machine, opening it on first use
+    VendingEngine getMachine(String machineId) {
+        if (!isValidMachineId(machineId)) {
+            throw new IllegalArgumentException("Invalid machine id: " + machineId);
+        }
+        return machines.computeIfAbsent(machineId, id -> {
+            VendingEngine engine = new VendingEngine(new File(directory, id), false, this);
+            engine.publishStockLevels();
+            return engine;
+        });
+    }
+
+    // Creates a machine whose catalog starts as a copy of the catalog in the template directory, and opens it.
+    // The copy is a fresh snapshot of the template's drinks: the template's journal is applied, and its
+    // generation and order count are not carried over, as the new machine has no orders yet.
+    VendingEngine addMachine(String machineId, File templateDirectory) throws IOException {
+        if (!isValidMachineId(machineId)) {
+            throw new IllegalArgumentException("Invalid machine id: " + machineId);
+        }
+        File machineDirectory = new File(directory, machineId);
+        if (BinaryCatalog.snapshotIn(machineDirectory).isFile()) {
+            throw new IOException("Machine " + machineId + " already exists");
+        }
+        File templateSnapshot = BinaryCatalog.snapshotIn(templateDirectory);
+        if (!templateSnapshot.isFile()) {
+            throw new IOException("No catalog to copy in " + templateDirectory);
+        }
+        // Read without compacting, so the template's own files are left untouched
+        List<Drink> drinks = new ArrayList<>();
+        new InventoryJournal(templateSnapshot, new File(templateDirectory, InventoryJournal.JOURNAL_FILE)).load(drinks);
+        Files.createDirectories(machineDirectory.toPath());
+        // The new machine keeps the template's format, text or binary
+        new InventoryJournal(new File(machineDirectory, templateSnapshot.getName()),
+                             new File(machineDirectory, InventoryJournal.JOURNAL_FILE)).compact(drinks, 0);
+        return getMachine(machineId);
+    }
+
+    // Returns the engines opened so far
+    List<VendingEngine> getOpenMachines() {
+        return Collections.unmodifiableList(new ArrayList<>(machines.values()));
+    }
+
+    // Opens every machine in the fleet directory and returns their engines
+    List<VendingEngine> openAll() {
+        List<VendingEngine> engines = new ArrayList<>();
+        for (String machineId : getMachineIds()) {
+            engines.add(getMachine(machineId));
+        }
+        return engines;
+    }
+
+    // Returns the sales of every machine merged into one set of aggregates
+    SalesCube getMergedSales() {
+        SalesCube merged = new SalesCube();
+        for (VendingEngine engine : openAll()) {
+            engine.getSalesReport().mergeInto(merged);
+        }
+        return merged;
+    }
+
+    // Returns the largest order total of any machine
+    double getHighestSale() {
+        double highest = 0;
+        for (VendingEngine engine : openAll()) {
+            highest = Math.max(highest, engine.getSalesReport().getHighestSale());
+        }
+        return highest;
+    }
+
+    // Returns the number of orders placed on all machines
+    long getOrderCount() {
+        long orders = 0;
+        for (VendingEngine engine : openAll()) {
+            orders += engine.getSalesReport().getOrderCount();
+        }
+        return orders;
+    }
+}
@@ -4,8 +4,6 @@ import java.awt.*;
 import java.awt.event.ActionListener;
 
 // Importing necessary packages for file operations
-import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.IOException;
 
 // Importing the ArrayList class for potential list operations
@@ -15,14 +13,21 @@ import java.util.ArrayList;
 public class VendingMachine extends JFrame {
 
     // Declaring private member variables (buttons) for the interface
+    private final VendingEngine engine;  // Engine of the machine this window serves
     private JButton customerButton;
     private JButton staffButton;
 
     // Defining a constant for the background color of the interface
     private static final Color BACKGROUND_COLOR = Color.BLACK;
 
-    // Default constructor for the VendingMachine class
+    // Default constructor for the VendingMachine class, serving the machine in the working directory
     public VendingMachine() {
+        this(VendingEngine.getDefault());
+    }
+
+    // Constructor for a window serving the given machine, for example one machine of a fleet
+    public VendingMachine(VendingEngine engine) {
+        this.engine = engine;
 
         // Trying to set the look and feel of the GUI to match the system's
         try {
@@ -31,21 +36,23 @@ public class VendingMachine extends JFrame {
             e.printStackTrace();  // Print any exceptions that might occur
         }
 
-        // Setting the title of the window
-        setTitle("Vending Machine");
+        // Setting the title of the window, naming the machine when it is one of a fleet
+        boolean inFleet = engine.getFleet() != null;
+        setTitle(inFleet ? "Vending Machine " + engine.getDataDirectory().getName() : "Vending Machine");
         // Setting the size of the window
         setSize(600, 400);
-        // Setting the default close operation (closes the application when the window is closed)
-        setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        // Setting the default close operation (closes the application when the window is closed,
+        // or only this machine's window when the fleet window is still open)
+        setDefaultCloseOperation(inFleet ? JFrame.DISPOSE_ON_CLOSE : JFrame.EXIT_ON_CLOSE);
         // Setting the layout of the main window to BorderLayout
         setLayout(new BorderLayout());
         // Setting the background color of the content pane
         getContentPane().setBackground(BACKGROUND_COLOR);
 
-        // Creating an ImageIcon object from an image file to represent the vending machine
-        ImageIcon machineIcon = new ImageIcon("machine.png");
-        // Creating a JLabel to hold and display the image icon
-        JLabel machineLabel = new JLabel(machineIcon);
+        // Creating a JLabel to hold and display the vending machine image
+        JLabel machineLabel = new JLabel();
+        // Reading the image file on the I/O thread and showing it once it is loaded
+        AsyncIo.call(() -> new ImageIcon("machine.png"), machineLabel::setIcon, null);
 
         // Creating the main panel with a BorderLayout
         JPanel mainPanel = new JPanel(new BorderLayout());
@@ -72,7 +79,13 @@ public class VendingMachine extends JFrame {
         mainPanel.add(machineLabel, BorderLayout.EAST);
 
         // Creating and adding an exit button
-        JButton exitButton = createStyledButton("Exit", e -> System.exit(0));
+        JButton exitButton = createStyledButton("Exit", e -> {
+            if (inFleet) {
+                dispose();  // Back to the fleet window
+            } else {
+                System.exit(0);
+            }
+        });
         buttonPanel.add(exitButton);
 
         // Adding the main panel to the window's content pane
@@ -91,38 +104,62 @@ public class VendingMachine extends JFrame {
 
     // Method to open the customer interface
     private void openCustomerInterface() {
-        CustomerInterface customerInterface = new CustomerInterface();  // Creating a new customer interface
+        CustomerInterface customerInterface = new CustomerInterface(engine);  // Creating a new customer interface
         customerInterface.setVisible(true);  // Making it visible
         this.setVisible(false);  // Hiding the current window
     }
 
-    // Method to view all orders from a file
+    // Method to browse the orders in the order log
     private void viewAllOrders() {
-        StringBuilder ordersText = new StringBuilder("All Orders:\n");  // Initializing a StringBuilder for order text
-        try (BufferedReader reader = new BufferedReader(new FileReader("orders.txt"))) {  // Trying to read from a file
-            String line;
-            while ((line = reader.readLine()) != null) {  // Reading each line until the end
-                ordersText.append(line).append("\n");  // Appending each line to the StringBuilder
-            }
-        } catch (IOException e) {
-            e.printStackTrace();  // Print any IO exceptions that might occur
-        }
-        // Displaying a message dialog with the orders text
-        JOptionPane.showMessageDialog(this, ordersText.toString());
+        OrderBrowser orderBrowser = new OrderBrowser(engine.getOrderLog());  // Creating a browser over the order log
+        orderBrowser.setVisible(true);  // Making it visible
     }
 
     // Method to open the staff interface
     private void openStaffInterface() {
-        StaffInterface staffInterface = new StaffInterface();  // Creating a new staff interface
+        StaffInterface staffInterface = new StaffInterface(engine);  // Creating a new staff interface
         staffInterface.setVisible(true);  // Making it visible
         this.setVisible(false);  // Hiding the current window
     }
 
     // Main method to launch the application
     public static void main(String[] args) {
-        SwingUtilities.invokeLater(() -> {  // Using the Swing thread to ensure thread safety
+        // "--load" runs the headless load generator instead of opening the window
+        if (args.length > 0 && args[0].equals("--load")) {
+            LoadGenerator.main(java.util.Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        // "--serve [PORT]" runs only the HTTP API, without any window, until the process is stopped
+        if (args.length > 0 && args[0].equals("--serve")) {
+            try {
+                int port = args.length > 1 ? Integer.parseInt(args[1]) : HttpApi.DEFAULT_PORT;
+                new HttpApi(VendingEngine.getDefault(), port).start();
+            } catch (IOException | NumberFormatException e) {
+                e.printStackTrace();
+                System.exit(1);
+            }
+            return;
+        }
+        EdtWatchdog.installIfConfigured();  // Reports slow event handlers when -Dvending.edt.stallMillis is set
+        // "--fleet DIR" serves every machine under DIR from this process, starting with the fleet window
+        if (args.length > 1 && args[0].equals("--fleet")) {
+            VendingFleet fleet = new VendingFleet(new java.io.File(args[1]));
+            AsyncIo.call(() -> {
+                StaffAccountStore.getDefault();
+                return fleet.openAll();
+            }, engines -> new FleetScreen(fleet).setVisible(true),
+               e -> JOptionPane.showMessageDialog(null, "The fleet could not be loaded."));
+            return;
+        }
+        // Loading the catalog, the orders and the staff accounts on the I/O thread, then opening the window on the Swing thread
+        AsyncIo.call(() -> {
+            StaffAccountStore.getDefault();
+            VendingEngine engine = VendingEngine.getDefault();
+            HttpApi.startIfConfigured(engine);  // Serves the HTTP API next to the window when -Dvending.http.port is set
+            return engine;
+        }, engine -> {
             VendingMachine vendingMachine = new VendingMachine();  // Creating a new VendingMachine object
             vendingMachine.setVisible(true);  // Making it visible
-        });
+        }, e -> JOptionPane.showMessageDialog(null, "The vending machine data could not be loaded."));
     }
 }
@@ -0,0 +1,53 @@
+// Importing the fixture interface and helpers of the benchmark module
+import benchmarks.CheckoutFixture;
+import benchmarks.Fixtures;
+
+// Importing necessary packages for file operations
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// Importing necessary packages for list data structures
+import java.util.List;
+
+// Drives complete checkouts through VendingEngine, as CustomerInterface does
+public class EngineCheckoutFixture implements CheckoutFixture {
+
+    // Stock per drink, large enough that the benchmark never sells out
+    private static final int STOCK = Integer.MAX_VALUE / 2;
+
+    private Path directory;
+    private VendingEngine engine;
+    private List<Drink> drinks;
+
+    @Override
+    public void setUp(int drinkCount) throws IOException {
+        directory = Fixtures.createDirectory();
+        try (BufferedWriter writer = Files.newBufferedWriter(directory.resolve(InventoryJournal.SNAPSHOT_FILE))) {
+            for (int i = 0; i < drinkCount; i++) {
+                writer.write(InventoryJournal.toLine(new Drink("drink" + i, 1.5, STOCK, "images/drink" + i + ".png")));
+                writer.newLine();
+            }
+        }
+        engine = new VendingEngine(directory.toFile());
+        drinks = engine.getDrinks();
+    }
+
+    @Override
+    public boolean checkout(int drink) throws IOException {
+        VendingEngine.Cart cart = engine.newCart();
+        if (engine.addToCart(cart, drinks.get(drink), 1) != null) {  // Held on add, as on the customer screen
+            engine.cancel(cart);
+            return false;
+        }
+        engine.commit(cart);
+        return true;
+    }
+
+    @Override
+    public void tearDown() throws IOException {
+        engine.getOrderLog().close();
+        Fixtures.deleteDirectory(directory);
+    }
+}
@@ -0,0 +1,56 @@
+// Importing the fixture interface and helpers of the benchmark module
+import benchmarks.CatalogFixture;
+import benchmarks.Fixtures;
+
+// Importing necessary packages for file operations
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// Importing necessary packages for list data structures
+import java.util.ArrayList;
+
+// Drives InventoryJournal, the code that loads the catalog and rewrites its snapshot, over a generated catalog
+public class JournalCatalogFixture implements CatalogFixture {
+
+    private Path directory;
+    private InventoryJournal journal;
+    private ArrayList<Drink> drinks;
+
+    @Override
+    public void setUp(int rows, boolean binary) throws IOException {
+        directory = Fixtures.createDirectory();
+        Path snapshot = directory.resolve(InventoryJournal.SNAPSHOT_FILE);
+        try (BufferedWriter writer = Files.newBufferedWriter(snapshot)) {
+            for (int i = 0; i < rows; i++) {
+                writer.write(InventoryJournal.toLine(new Drink("drink" + i, 1.5 + i % 10, 100, "images/drink" + i + ".png")));
+                writer.newLine();
+            }
+        }
+        File journalFile = directory.resolve(InventoryJournal.JOURNAL_FILE).toFile();
+        journal = new InventoryJournal(snapshot.toFile(), journalFile);
+        drinks = journal.load();
+        if (binary) {
+            // Convert the text snapshot the same way the BinaryCatalog converter does
+            journal = new InventoryJournal(directory.resolve(BinaryCatalog.CATALOG_FILE).toFile(), journalFile);
+            journal.compact(drinks);
+        }
+    }
+
+    @Override
+    public int load() {
+        return journal.load().size();
+    }
+
+    @Override
+    public void save() {
+        journal.compact(drinks);
+    }
+
+    @Override
+    public void tearDown() throws IOException {
+        Fixtures.deleteDirectory(directory);
+    }
+}
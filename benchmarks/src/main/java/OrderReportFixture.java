@@ -0,0 +1,67 @@
+// Importing the fixture interface and helpers of the benchmark module
+import benchmarks.Fixtures;
+import benchmarks.ReportFixture;
+
+// Importing necessary packages for file operations
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// Drives SalesReport, the code behind "Generate Reports", over a generated orders.txt
+public class OrderReportFixture implements ReportFixture {
+
+    private static final int DRINK_NAMES = 50;  // Distinct drinks appearing in the generated orders
+
+    private Path directory;
+    private File ordersFile;
+    private SalesReport report;  // Aggregates built once, for the report query
+
+    @Override
+    public void setUp(int orders) throws IOException {
+        directory = Fixtures.createDirectory();
+        ordersFile = directory.resolve(OrderLog.ORDERS_FILE).toFile();
+        try (BufferedWriter writer = Files.newBufferedWriter(ordersFile.toPath())) {
+            for (int i = 0; i < orders; i++) {
+                int quantity = 1 + i % 3;
+                double cost = 1.5 * quantity;
+                writer.write(OrderLog.RECORD_MARKER);
+                writer.newLine();
+                writer.write("drink" + (i % DRINK_NAMES) + " x " + quantity + " = " + cost);
+                writer.newLine();
+                writer.newLine();
+                writer.write("Total: " + cost);
+                writer.newLine();
+                writer.newLine();
+            }
+        }
+        report = newReport(new File(directory.toFile(), "unused.checkpoint"));
+    }
+
+    @Override
+    public String replayAll() {
+        // A report without a checkpoint has to parse every order in the log
+        File checkpoint = new File(directory.toFile(), "missing.checkpoint");
+        return newReport(checkpoint).getMostPopularDrink();
+    }
+
+    @Override
+    public String report() {
+        return report.getMostPopularDrink() + report.getHighestSale();
+    }
+
+    @Override
+    public void tearDown() throws IOException {
+        Fixtures.deleteDirectory(directory);
+    }
+
+    // Builds a report over the generated log that never writes its checkpoint
+    private SalesReport newReport(File checkpoint) {
+        OrderLog orderLog = new OrderLog(ordersFile, new File(directory.toFile(), OrderLog.INDEX_FILE));
+        SalesReport salesReport = new SalesReport(orderLog, checkpoint);
+        orderLog.close();
+        checkpoint.delete();
+        return salesReport;
+    }
+}
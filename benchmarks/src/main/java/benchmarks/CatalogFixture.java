@@ -0,0 +1,20 @@
+package benchmarks;
+
+import java.io.IOException;
+
+// Loads and saves a catalog of a given size through the inventory journal
+public interface CatalogFixture {
+
+    // Writes a catalog with the given number of rows into a fresh directory, as drinks.bin when binary
+    // is set and as drinks.txt otherwise
+    void setUp(int rows, boolean binary) throws IOException;
+
+    // Loads the catalog (snapshot plus journal) and returns the number of drinks
+    int load();
+
+    // Rewrites the whole catalog as a new snapshot
+    void save();
+
+    // Removes the fixture's files
+    void tearDown() throws IOException;
+}
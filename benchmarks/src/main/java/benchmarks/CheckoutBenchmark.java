@@ -0,0 +1,59 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Checkout throughput of one engine, alone and with many terminals competing for the same stock.
+// With drinks = 1 every terminal fights over a single stock counter.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CheckoutBenchmark {
+
+    @Param({"1", "100"})
+    public int drinks;
+
+    private CheckoutFixture fixture;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        fixture = Fixtures.create(CheckoutFixture.class, "EngineCheckoutFixture");
+        fixture.setUp(drinks);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        fixture.tearDown();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean checkoutSingleTerminal() throws IOException {
+        return fixture.checkout(ThreadLocalRandom.current().nextInt(drinks));
+    }
+
+    @Benchmark
+    @Threads(8)
+    public boolean checkoutEightTerminals() throws IOException {
+        return fixture.checkout(ThreadLocalRandom.current().nextInt(drinks));
+    }
+}
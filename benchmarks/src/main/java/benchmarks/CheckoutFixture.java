@@ -0,0 +1,16 @@
+package benchmarks;
+
+import java.io.IOException;
+
+// Runs complete checkouts (reserve, commit, persist) against one shared engine
+public interface CheckoutFixture {
+
+    // Creates an engine over a fresh directory with the given number of well-stocked drinks
+    void setUp(int drinks) throws IOException;
+
+    // Checks out one unit of the drink at the given position and returns whether it was sold
+    boolean checkout(int drink) throws IOException;
+
+    // Removes the fixture's files
+    void tearDown() throws IOException;
+}
@@ -0,0 +1,43 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+// Creates the fixtures that drive the application code.
+// The application classes live in the unnamed package, which JMH benchmarks (and any other named
+// package) cannot refer to, so each benchmark talks to a fixture in the unnamed package through an
+// interface declared here. Only construction is reflective; the measured calls are plain interface calls.
+public final class Fixtures {
+
+    private Fixtures() {
+    }
+
+    // Instantiates the named fixture class and returns it as the given interface
+    static <T> T create(Class<T> type, String className) {
+        try {
+            return type.cast(Class.forName(className).getDeclaredConstructor().newInstance());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot create fixture " + className, e);
+        }
+    }
+
+    // Creates an empty working directory for a fixture's data files
+    public static Path createDirectory() throws IOException {
+        return Files.createTempDirectory("vending-bench");
+    }
+
+    // Deletes a fixture's working directory and everything in it
+    public static void deleteDirectory(Path directory) throws IOException {
+        if (directory == null || !Files.exists(directory)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+}
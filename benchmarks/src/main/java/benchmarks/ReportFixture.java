@@ -0,0 +1,19 @@
+package benchmarks;
+
+import java.io.IOException;
+
+// Builds the sales report from an orders.txt of a given size
+public interface ReportFixture {
+
+    // Writes an orders.txt with the given number of orders into a fresh directory
+    void setUp(int orders) throws IOException;
+
+    // Parses every order without a checkpoint and returns the most popular drink
+    String replayAll();
+
+    // Answers "Generate Reports" from the already built aggregates
+    String report();
+
+    // Removes the fixture's files
+    void tearDown() throws IOException;
+}